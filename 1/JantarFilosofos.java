@@ -0,0 +1,515 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Motor executável do Jantar dos Filósofos com estratégias plugáveis.
+ *
+ * Implementa o pseudocódigo de jantar_filosofos_pseudocodigo.md para N
+ * filósofos e mede o custo de cada estratégia de prevenção de deadlock:
+ * refeições por segundo, tempo médio com fome e se houve deadlock.
+ *
+ * Também mede a justiça entre os filósofos: refeições de cada um, maior
+ * espera contínua, percentis do tempo com fome e o índice de Jain.
+ *
+ * Uso: java JantarFilosofos [N] [duração s] [ESTRATEGIA|TODAS]
+ */
+public class JantarFilosofos {
+
+    // Configuração padrão (tempos menores que os do pseudocódigo para
+    // medir throughput em poucos segundos)
+    static final int N = 5;
+    static final int DURACAO_S = 5;
+    static final int[] TEMPO_PENSAR_MS = {0, 10};
+    static final int[] TEMPO_COMER_MS = {0, 5};
+
+    // Pausa entre pegar o primeiro e o segundo garfo (como o dormir(50) de
+    // DeadlockDemo): aumenta a janela de hold-and-wait
+    static final int PAUSA_ENTRE_GARFOS_MS = 1;
+
+    /**
+     * Protocolo de aquisição e liberação dos garfos de um filósofo
+     */
+    interface Estrategia {
+        void pegarGarfos(int id) throws InterruptedException;
+        void soltarGarfos(int id);
+    }
+
+    enum TipoEstrategia {
+        INGENUA("Ingênua (esquerda → direita)") {
+            Estrategia criar(int n) {
+                ReentrantLock[] garfos = criarGarfos(n);
+                return new Estrategia() {
+                    public void pegarGarfos(int id) throws InterruptedException {
+                        pegarEmOrdem(garfos, esquerda(id), direita(id, n));
+                    }
+                    public void soltarGarfos(int id) {
+                        soltar(garfos, esquerda(id), direita(id, n));
+                    }
+                };
+            }
+        },
+
+        HIERARQUIA("Hierarquia (min → max)") {
+            Estrategia criar(int n) {
+                ReentrantLock[] garfos = criarGarfos(n);
+                return new Estrategia() {
+                    public void pegarGarfos(int id) throws InterruptedException {
+                        int esq = esquerda(id);
+                        int dir = direita(id, n);
+                        pegarEmOrdem(garfos, Math.min(esq, dir), Math.max(esq, dir));
+                    }
+                    public void soltarGarfos(int id) {
+                        soltar(garfos, esquerda(id), direita(id, n));
+                    }
+                };
+            }
+        },
+
+        GARCOM("Garçom (Semaphore(N-1))") {
+            Estrategia criar(int n) {
+                ReentrantLock[] garfos = criarGarfos(n);
+                // No máximo N-1 filósofos disputam garfos: sempre sobra um par
+                Semaphore garcom = new Semaphore(n - 1, true);
+                return new Estrategia() {
+                    public void pegarGarfos(int id) throws InterruptedException {
+                        garcom.acquire();
+                        try {
+                            pegarEmOrdem(garfos, esquerda(id), direita(id, n));
+                        } catch (InterruptedException e) {
+                            garcom.release();
+                            throw e;
+                        }
+                    }
+                    public void soltarGarfos(int id) {
+                        soltar(garfos, esquerda(id), direita(id, n));
+                        garcom.release();
+                    }
+                };
+            }
+        },
+
+        ASSIMETRICA("Assimétrica (par/ímpar)") {
+            Estrategia criar(int n) {
+                ReentrantLock[] garfos = criarGarfos(n);
+                return new Estrategia() {
+                    public void pegarGarfos(int id) throws InterruptedException {
+                        // Pares começam pela esquerda, ímpares pela direita
+                        if (id % 2 == 0) {
+                            pegarEmOrdem(garfos, esquerda(id), direita(id, n));
+                        } else {
+                            pegarEmOrdem(garfos, direita(id, n), esquerda(id));
+                        }
+                    }
+                    public void soltarGarfos(int id) {
+                        soltar(garfos, esquerda(id), direita(id, n));
+                    }
+                };
+            }
+        },
+
+        CHANDY_MISRA("Chandy–Misra (garfos sujos/limpos)") {
+            Estrategia criar(int n) {
+                return new ChandyMisra(n);
+            }
+        };
+
+        final String nome;
+
+        TipoEstrategia(String nome) {
+            this.nome = nome;
+        }
+
+        abstract Estrategia criar(int n);
+    }
+
+    // ========================================================================
+    // FUNÇÕES AUXILIARES DOS GARFOS
+    // ========================================================================
+
+    static int esquerda(int id) {
+        return id;
+    }
+
+    static int direita(int id, int n) {
+        return (id + 1) % n;
+    }
+
+    static ReentrantLock[] criarGarfos(int n) {
+        ReentrantLock[] garfos = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) {
+            garfos[i] = new ReentrantLock();
+        }
+        return garfos;
+    }
+
+    /**
+     * Pega os dois garfos na ordem dada. lockInterruptibly permite encerrar
+     * filósofos presos em deadlock no final da execução.
+     */
+    static void pegarEmOrdem(ReentrantLock[] garfos, int primeiro, int segundo)
+            throws InterruptedException {
+        garfos[primeiro].lockInterruptibly();
+        try {
+            dormir(PAUSA_ENTRE_GARFOS_MS);
+            garfos[segundo].lockInterruptibly();
+        } catch (InterruptedException e) {
+            garfos[primeiro].unlock();
+            throw e;
+        }
+    }
+
+    static void soltar(ReentrantLock[] garfos, int a, int b) {
+        garfos[a].unlock();
+        garfos[b].unlock();
+    }
+
+    // ========================================================================
+    // CHANDY–MISRA
+    // ========================================================================
+
+    /**
+     * Solução "higiênica" de Chandy e Misra, com as mensagens substituídas
+     * por estado compartilhado protegido por um lock da mesa (usado apenas
+     * para a contabilidade dos garfos, nunca durante a refeição).
+     *
+     * Cada garfo tem um dono e está sujo ou limpo. Um filósofo com fome pode
+     * tomar um garfo SUJO de um vizinho que não está comendo (o garfo chega
+     * limpo); garfos limpos ficam com quem os tem. Ao comer, os garfos
+     * sujam e os pedidos pendentes são atendidos. Inicialmente cada garfo
+     * está sujo com o vizinho de menor id: o grafo de precedência é acíclico.
+     */
+    static class ChandyMisra implements Estrategia {
+        final int n;
+        final int[] dono;
+        final boolean[] sujo;
+        final boolean[] pedido;
+        final boolean[] comendo;
+        final ReentrantLock mesa = new ReentrantLock();
+        final Condition[] aviso;
+
+        ChandyMisra(int n) {
+            this.n = n;
+            dono = new int[n];
+            sujo = new boolean[n];
+            pedido = new boolean[n];
+            comendo = new boolean[n];
+            aviso = new Condition[n];
+            for (int g = 0; g < n; g++) {
+                // Garfo g fica entre os filósofos g - 1 e g
+                dono[g] = Math.min(g, (g - 1 + n) % n);
+                sujo[g] = true;
+                aviso[g] = mesa.newCondition();
+            }
+        }
+
+        public void pegarGarfos(int id) throws InterruptedException {
+            int esq = esquerda(id);
+            int dir = direita(id, n);
+            mesa.lock();
+            try {
+                while (dono[esq] != id || dono[dir] != id) {
+                    solicitar(id, esq);
+                    solicitar(id, dir);
+                    if (dono[esq] != id || dono[dir] != id) {
+                        aviso[id].await();
+                    }
+                }
+                comendo[id] = true;
+            } finally {
+                mesa.unlock();
+            }
+        }
+
+        /**
+         * Toma o garfo se estiver sujo e o dono não estiver comendo;
+         * senão registra o pedido para ser atendido quando ele terminar
+         */
+        void solicitar(int id, int garfo) {
+            int atual = dono[garfo];
+            if (atual == id) {
+                return;
+            }
+            if (sujo[garfo] && !comendo[atual]) {
+                dono[garfo] = id;
+                sujo[garfo] = false;
+                pedido[garfo] = false;
+            } else {
+                pedido[garfo] = true;
+            }
+        }
+
+        public void soltarGarfos(int id) {
+            mesa.lock();
+            try {
+                comendo[id] = false;
+                entregarSePedido(id, esquerda(id), (id - 1 + n) % n);
+                entregarSePedido(id, direita(id, n), (id + 1) % n);
+            } finally {
+                mesa.unlock();
+            }
+        }
+
+        void entregarSePedido(int id, int garfo, int vizinho) {
+            sujo[garfo] = true;
+            if (pedido[garfo]) {
+                pedido[garfo] = false;
+                dono[garfo] = vizinho;
+                sujo[garfo] = false;
+                aviso[vizinho].signal();
+            }
+        }
+    }
+
+    // ========================================================================
+    // EXECUÇÃO E MÉTRICAS
+    // ========================================================================
+
+    /**
+     * Métricas de uma execução
+     */
+    static class Resultado {
+        final TipoEstrategia tipo;
+        final long[] refeicoes;
+        final long[] fomeNs;      // tempo total com fome de cada filósofo
+        final long[] maiorFomeNs; // maior espera contínua (inclui a que ficou pendente)
+        final Amostras[] esperas; // cada período com fome, por filósofo
+        boolean deadlock;
+        double segundos;
+
+        Resultado(TipoEstrategia tipo, int n) {
+            this.tipo = tipo;
+            refeicoes = new long[n];
+            fomeNs = new long[n];
+            maiorFomeNs = new long[n];
+            esperas = new Amostras[n];
+            for (int i = 0; i < n; i++) {
+                esperas[i] = new Amostras();
+            }
+        }
+
+        long totalRefeicoes() {
+            long total = 0;
+            for (long r : refeicoes) total += r;
+            return total;
+        }
+
+        double fomeMediaMs() {
+            long soma = 0;
+            for (long f : fomeNs) soma += f;
+            long total = totalRefeicoes();
+            return total == 0 ? Double.NaN : soma / 1e6 / total;
+        }
+
+        /**
+         * Índice de justiça de Jain sobre as refeições: (Σx)² / (n·Σx²).
+         * 1 = todos comeram igual; 1/n = um filósofo comeu sozinho.
+         */
+        double indiceJain() {
+            double soma = 0;
+            double somaQuadrados = 0;
+            for (long r : refeicoes) {
+                soma += r;
+                somaQuadrados += (double) r * r;
+            }
+            return somaQuadrados == 0 ? Double.NaN : soma * soma / (refeicoes.length * somaQuadrados);
+        }
+
+        long menosRefeicoes() {
+            return Arrays.stream(refeicoes).min().orElse(0);
+        }
+
+        long maisRefeicoes() {
+            return Arrays.stream(refeicoes).max().orElse(0);
+        }
+
+        double maiorFomeMs() {
+            return Arrays.stream(maiorFomeNs).max().orElse(0) / 1e6;
+        }
+
+        /**
+         * Percentil do tempo com fome de todos os filósofos juntos (ms)
+         */
+        double fomePercentilMs(double p) {
+            Amostras todas = new Amostras();
+            for (Amostras a : esperas) {
+                todas.adicionar(a);
+            }
+            return todas.percentil(p) / 1e6;
+        }
+    }
+
+    /**
+     * Amostras de espera (ns) em um array primitivo que cresce sob demanda.
+     * Escrito só pelo próprio filósofo; lido depois do join().
+     */
+    static class Amostras {
+        long[] valores = new long[64];
+        int tamanho;
+
+        void adicionar(long v) {
+            if (tamanho == valores.length) {
+                valores = Arrays.copyOf(valores, tamanho * 2);
+            }
+            valores[tamanho++] = v;
+        }
+
+        void adicionar(Amostras outras) {
+            for (int i = 0; i < outras.tamanho; i++) {
+                adicionar(outras.valores[i]);
+            }
+        }
+
+        /**
+         * Percentil exato por posição (nearest-rank); NaN se vazio
+         */
+        double percentil(double p) {
+            if (tamanho == 0) {
+                return Double.NaN;
+            }
+            long[] ordenados = Arrays.copyOf(valores, tamanho);
+            Arrays.sort(ordenados);
+            int posicao = (int) Math.ceil(p / 100.0 * tamanho) - 1;
+            return ordenados[Math.max(0, Math.min(tamanho - 1, posicao))];
+        }
+    }
+
+    static volatile boolean emExecucao;
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : N;
+        int duracao = args.length > 1 ? Integer.parseInt(args[1]) : DURACAO_S;
+        String escolha = args.length > 2 ? args[2].toUpperCase() : "TODAS";
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     JANTAR DOS FILÓSOFOS - ESTRATÉGIAS               ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Filósofos: %d | Duração: %d s por estratégia%n", n, duracao);
+        System.out.printf("Pensar: %d-%d ms | Comer: %d-%d ms | Pausa entre garfos: %d ms%n%n",
+                          TEMPO_PENSAR_MS[0], TEMPO_PENSAR_MS[1],
+                          TEMPO_COMER_MS[0], TEMPO_COMER_MS[1], PAUSA_ENTRE_GARFOS_MS);
+
+        List<Resultado> resultados = new ArrayList<>();
+        System.out.printf("%-36s %12s %16s %10s%n",
+                          "Estratégia", "Refeições/s", "Fome média (ms)", "Deadlock");
+        for (TipoEstrategia tipo : TipoEstrategia.values()) {
+            if (!escolha.equals("TODAS") && !escolha.equals(tipo.name())) {
+                continue;
+            }
+            Resultado r = executar(tipo, n, duracao * 1000L);
+            resultados.add(r);
+            System.out.printf("%-36s %,12.1f %16.2f %10s%n",
+                              tipo.nome, r.totalRefeicoes() / r.segundos, r.fomeMediaMs(),
+                              r.deadlock ? "❌ SIM" : "✅ não");
+        }
+
+        System.out.println();
+        System.out.println("Justiça entre filósofos (fome em ms):");
+        System.out.printf("%-36s %8s %14s %9s %9s %9s %10s%n",
+                          "Estratégia", "Jain", "Refeições min-max", "p50", "p99", "p99.9",
+                          "Maior fome");
+        for (Resultado r : resultados) {
+            System.out.printf("%-36s %8.4f %,8d-%,-8d %9.2f %9.2f %9.2f %10.1f%n",
+                              r.tipo.nome, r.indiceJain(), r.menosRefeicoes(), r.maisRefeicoes(),
+                              r.fomePercentilMs(50), r.fomePercentilMs(99),
+                              r.fomePercentilMs(99.9), r.maiorFomeMs());
+        }
+
+        System.out.println();
+        System.out.println("💡 A estratégia ingênua tende a travar (todos seguram o garfo");
+        System.out.println("   esquerdo); as demais negam a espera circular de formas diferentes,");
+        System.out.println("   e a diferença de refeições/s é o custo de cada prevenção.");
+        System.out.println("💡 Jain perto de 1 e \"maior fome\" limitada indicam ausência de");
+        System.out.println("   starvation; um filósofo com poucas refeições derruba o índice.");
+    }
+
+    /**
+     * Executa a mesa pelo tempo dado. Um monitor verifica deadlock a cada
+     * 100 ms com ThreadMXBean (os garfos são ReentrantLocks, visíveis para
+     * findDeadlockedThreads); havendo deadlock, a execução é encerrada.
+     */
+    static Resultado executar(TipoEstrategia tipo, int n, long duracaoMs) throws InterruptedException {
+        Estrategia estrategia = tipo.criar(n);
+        Resultado resultado = new Resultado(tipo, n);
+        ThreadMXBean tmx = ManagementFactory.getThreadMXBean();
+
+        emExecucao = true;
+        Thread[] filosofos = new Thread[n];
+        for (int i = 0; i < n; i++) {
+            int id = i;
+            filosofos[i] = new Thread(() -> filosofo(id, estrategia, resultado), "Filosofo-" + i);
+            filosofos[i].start();
+        }
+
+        long inicio = System.nanoTime();
+        long prazo = inicio + TimeUnit.MILLISECONDS.toNanos(duracaoMs);
+        while (System.nanoTime() < prazo) {
+            Thread.sleep(100);
+            if (tmx.findDeadlockedThreads() != null) {
+                resultado.deadlock = true;
+                break;
+            }
+        }
+        resultado.segundos = (System.nanoTime() - inicio) / 1e9;
+
+        emExecucao = false;
+        for (Thread f : filosofos) {
+            f.interrupt();  // libera quem está bloqueado em um garfo
+        }
+        for (Thread f : filosofos) {
+            f.join();
+        }
+        return resultado;
+    }
+
+    /**
+     * Ciclo do filósofo: pensar → fome → pegar garfos → comer → soltar
+     */
+    static void filosofo(int id, Estrategia estrategia, Resultado resultado) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long comFome = 0;  // != 0 enquanto espera pelos garfos
+        try {
+            while (emExecucao) {
+                dormir(random.nextInt(TEMPO_PENSAR_MS[0], TEMPO_PENSAR_MS[1] + 1));
+
+                comFome = System.nanoTime();
+                estrategia.pegarGarfos(id);
+                long fome = System.nanoTime() - comFome;
+                comFome = 0;
+                resultado.fomeNs[id] += fome;
+                resultado.esperas[id].adicionar(fome);
+                resultado.maiorFomeNs[id] = Math.max(resultado.maiorFomeNs[id], fome);
+
+                try {
+                    dormir(random.nextInt(TEMPO_COMER_MS[0], TEMPO_COMER_MS[1] + 1));
+                    resultado.refeicoes[id]++;
+                } finally {
+                    estrategia.soltarGarfos(id);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Encerramento da execução; uma espera interrompida (deadlock ou
+            // starvation) também conta para a maior fome
+            if (comFome != 0) {
+                resultado.maiorFomeNs[id] = Math.max(resultado.maiorFomeNs[id],
+                                                     System.nanoTime() - comFome);
+            }
+        }
+    }
+
+    /**
+     * Dormir propagando a interrupção (usada para encerrar os filósofos)
+     */
+    static void dormir(long ms) throws InterruptedException {
+        if (ms > 0) {
+            Thread.sleep(ms);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Jantar dos Filósofos em escala: 100.000+ filósofos em virtual threads.
+ *
+ * Em vez de um objeto/monitor por garfo, os garfos ficam em um bitmap
+ * (long[], 1 bit por garfo) manipulado com CAS. O filósofo pega os DOIS
+ * garfos de uma vez ou nenhum: sem hold-and-wait não há deadlock, e quem não
+ * consegue cede a carrier thread e depois estaciona com backoff exponencial
+ * em vez de bloqueá-la.
+ *
+ * Para cada N mede refeições/s agregadas e a memória por filósofo (virtual
+ * thread + pilha + estado), mostrando onde o custo por recurso começa a pesar.
+ *
+ * Uso: java MesaMassiva [duração s] [N1 N2 ...]
+ *   (ex.: java -Xmx4g MesaMassiva 3 1000 10000 100000 200000)
+ */
+public class MesaMassiva {
+
+    // Configuração padrão
+    static final int DURACAO_S = 3;
+    static final int[] TAMANHOS = {1_000, 10_000, 100_000};
+    static final int[] TEMPO_PENSAR_MS = {0, 10};
+    static final int[] TEMPO_COMER_MS = {0, 5};
+
+    // Espera por garfos ocupados: algumas cedências da carrier, depois park
+    // com backoff exponencial (girar com 100k filósofos famintos esgotaria
+    // as carriers e ninguém comeria)
+    static final int TENTATIVAS_YIELD = 4;
+    static final long BACKOFF_MIN_NS = 10_000;
+    static final long BACKOFF_MAX_NS = 1_000_000;
+
+    static final VarHandle PALAVRA = MethodHandles.arrayElementVarHandle(long[].class);
+
+    static volatile boolean emExecucao;
+
+    /**
+     * Anel de N garfos em um bitmap: bit i de palavra i / 64
+     */
+    static class Garfos {
+        final long[] bits;
+        final int n;
+
+        Garfos(int n) {
+            this.n = n;
+            bits = new long[(n + 63) / 64];
+        }
+
+        /**
+         * Tenta pegar os garfos a e b juntos; não segura nenhum se falhar
+         */
+        boolean tentarPegar(int a, int b) {
+            int pa = a >>> 6;
+            int pb = b >>> 6;
+            if (pa == pb) {
+                // Mesma palavra: um único CAS pega os dois bits
+                long mascara = (1L << a) | (1L << b);
+                long atual = (long) PALAVRA.getVolatile(bits, pa);
+                return (atual & mascara) == 0
+                    && PALAVRA.compareAndSet(bits, pa, atual, atual | mascara);
+            }
+            // Palavras diferentes (fronteira de 64 ou volta do anel)
+            if (!pegarBit(a)) {
+                return false;
+            }
+            if (!pegarBit(b)) {
+                soltarBit(a);
+                return false;
+            }
+            return true;
+        }
+
+        boolean pegarBit(int g) {
+            int p = g >>> 6;
+            long bit = 1L << g;
+            long atual;
+            do {
+                atual = (long) PALAVRA.getVolatile(bits, p);
+                if ((atual & bit) != 0) {
+                    return false;
+                }
+            } while (!PALAVRA.compareAndSet(bits, p, atual, atual | bit));
+            return true;
+        }
+
+        void soltarBit(int g) {
+            PALAVRA.getAndBitwiseAnd(bits, g >>> 6, ~(1L << g));
+        }
+
+        void soltar(int a, int b) {
+            soltarBit(a);
+            soltarBit(b);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int duracao = args.length > 0 ? Integer.parseInt(args[0]) : DURACAO_S;
+        int[] tamanhos = TAMANHOS;
+        if (args.length > 1) {
+            tamanhos = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                tamanhos[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     MESA MASSIVA - FILÓSOFOS EM VIRTUAL THREADS      ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Duração: %d s por tamanho | Pensar: %d-%d ms | Comer: %d-%d ms%n%n",
+                          duracao, TEMPO_PENSAR_MS[0], TEMPO_PENSAR_MS[1],
+                          TEMPO_COMER_MS[0], TEMPO_COMER_MS[1]);
+
+        System.out.printf("%12s %14s %18s %16s %14s %14s%n", "Filósofos", "Refeições/s",
+                          "Refeições/s/fil.", "Fome média (ms)", "Bytes/fil.", "Garfos (B)");
+        for (int n : tamanhos) {
+            executar(n, duracao * 1000L);
+        }
+
+        System.out.println();
+        System.out.println("💡 Garfos em bitmap custam 1 bit cada; com um Object por garfo seriam");
+        System.out.println("   ~16 bytes + referência. O custo dominante por filósofo é a própria");
+        System.out.println("   virtual thread (objeto + pilha no heap enquanto estacionada).");
+    }
+
+    static void executar(int n, long duracaoMs) throws InterruptedException {
+        Garfos garfos = new Garfos(n);
+        int[] refeicoes = new int[n];
+        long[] fomeNs = new long[n];
+
+        long antes = heapUsado();
+        emExecucao = true;
+        long inicio;
+        long depois;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < n; i++) {
+                int id = i;
+                executor.submit(() -> filosofo(id, garfos, refeicoes, fomeNs));
+            }
+            inicio = System.nanoTime();
+
+            // Mede a memória com a mesa em regime (a maioria estacionada)
+            Thread.sleep(Math.min(500, duracaoMs / 2));
+            depois = heapUsado();
+
+            Thread.sleep(duracaoMs - Math.min(500, duracaoMs / 2));
+            emExecucao = false;
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long total = 0;
+        long fome = 0;
+        for (int i = 0; i < n; i++) {
+            total += refeicoes[i];
+            fome += fomeNs[i];
+        }
+
+        System.out.printf("%,12d %,14.0f %18.1f %16.2f %,14d %,14d%n",
+                          n, total / segundos, total / segundos / n,
+                          total == 0 ? Double.NaN : fome / 1e6 / total,
+                          Math.max(0, depois - antes) / n, garfos.bits.length * 8L);
+    }
+
+    /**
+     * Ciclo do filósofo: pensar → fome → pegar os dois garfos → comer → soltar
+     */
+    static void filosofo(int id, Garfos garfos, int[] refeicoes, long[] fomeNs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int esq = id;
+        int dir = (id + 1) % garfos.n;
+        try {
+            while (emExecucao) {
+                Thread.sleep(random.nextInt(TEMPO_PENSAR_MS[0], TEMPO_PENSAR_MS[1] + 1));
+
+                long comFome = System.nanoTime();
+                int tentativa = 0;
+                long backoff = BACKOFF_MIN_NS;
+                while (!garfos.tentarPegar(esq, dir)) {
+                    if (!emExecucao) {
+                        return;
+                    }
+                    if (++tentativa <= TENTATIVAS_YIELD) {
+                        Thread.yield();  // libera a carrier para outro filósofo
+                    } else {
+                        LockSupport.parkNanos(random.nextLong(backoff / 2, backoff + 1));
+                        backoff = Math.min(backoff * 2, BACKOFF_MAX_NS);
+                    }
+                }
+                fomeNs[id] += System.nanoTime() - comFome;
+
+                try {
+                    Thread.sleep(random.nextInt(TEMPO_COMER_MS[0], TEMPO_COMER_MS[1] + 1));
+                    refeicoes[id]++;
+                } finally {
+                    garfos.soltar(esq, dir);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Heap em uso após coleta (aproximação: System.gc() é só uma sugestão)
+     */
+    static long heapUsado() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
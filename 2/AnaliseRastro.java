@@ -0,0 +1,601 @@
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Análise offline de um rastro gravado por RastroLocks.
+ *
+ * Reconstrói, a partir dos eventos de cada thread:
+ *   - por lock: aquisições, contenção, espera (TENTATIVA → ADQUIRIDO) e
+ *     posse (ADQUIRIDO → LIBERADO), com percentis. Em monitores a espera é
+ *     desconhecida (n/d): o ADQUIRIDO leva o instante de antes de entrar e
+ *     a posse inclui a espera;
+ *   - linhas do tempo de posse e espera por lock, e a fatia de posse de cada
+ *     thread (mostra barging e starvation);
+ *   - mapa de calor de contenção: threads esperando, por lock e por intervalo;
+ *   - caminho crítico: partindo do último evento, volta por cada aquisição
+ *     disputada até a thread que liberou o lock logo antes, e soma onde o
+ *     tempo do caminho foi gasto (seção crítica, passagem do lock entre
+ *     threads ou fora de locks).
+ *
+ * Uso: java AnaliseRastro arquivo [colunas]
+ *   (rastros grandes: java -Xmx4g AnaliseRastro ...; ~12 bytes de heap por evento)
+ */
+public class AnaliseRastro {
+
+    static final int COLUNAS_PADRAO = 64;
+    static final int MAX_THREADS_NA_LINHA = 16;
+    static final String NIVEIS = " ▁▂▃▄▅▆▇█";
+    static final String CALOR = " .:-=+*#%@";
+
+    // Chave das liberações ordenadas: (tempo - inicio) << BITS_THREAD | thread
+    static final int BITS_THREAD = 20;
+
+    /**
+     * Eventos de uma thread, em ordem (blocos da thread em ordem de reserva)
+     */
+    static class EventosThread {
+        long[] nanos = new long[1024];
+        int[] codigos = new int[1024];
+        int total;
+
+        void adicionar(long t, int codigo) {
+            if (total == nanos.length) {
+                nanos = Arrays.copyOf(nanos, total * 2);
+                codigos = Arrays.copyOf(codigos, total * 2);
+            }
+            nanos[total] = t;
+            codigos[total] = codigo;
+            total++;
+        }
+
+        int lock(int i) {
+            return codigos[i] >>> 4;
+        }
+
+        int tipo(int i) {
+            return codigos[i] & 0xF;
+        }
+    }
+
+    /**
+     * Estatísticas e linhas do tempo de um lock
+     */
+    static class Lock {
+        final String nome;
+        final boolean monitor;  // sem TENTATIVA: espera desconhecida
+        long aquisicoes;
+        long estacionados;
+        long disputadas;  // outra thread liberou durante a espera
+        long primeiro = Long.MAX_VALUE;
+        long ultimo = Long.MIN_VALUE;
+        long posseTotal;
+        final HistogramaLatencia espera = new HistogramaLatencia();
+        final HistogramaLatencia posse = new HistogramaLatencia();
+        final Set<Integer> threads = new TreeSet<>();
+
+        long[] liberacoes = new long[1024];  // chaves ordenadas após a leitura
+        int totalLiberacoes;
+
+        // Linhas do tempo sobre [primeiro, ultimo]
+        double[] ocupado;
+        double[] esperando;
+        Map<Integer, double[]> possePorThread;
+
+        // Caminho crítico
+        long caminhoPosse;
+        long caminhoPassagem;
+        long passagens;
+
+        Lock(String nome, boolean monitor) {
+            this.nome = nome;
+            this.monitor = monitor;
+        }
+
+        void liberacao(long chave) {
+            if (totalLiberacoes == liberacoes.length) {
+                liberacoes = Arrays.copyOf(liberacoes, totalLiberacoes * 2);
+            }
+            liberacoes[totalLiberacoes++] = chave;
+        }
+    }
+
+    static String[] nomesThreads;
+    static Lock[] locks;
+    static EventosThread[] eventos;
+    static long inicio = Long.MAX_VALUE;
+    static long fim = Long.MIN_VALUE;
+    static long descartados;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: java AnaliseRastro arquivo [colunas]");
+            System.exit(1);
+        }
+        int colunas = args.length > 1 ? Integer.parseInt(args[1]) : COLUNAS_PADRAO;
+        long total = ler(Path.of(args[0]));
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     ANÁLISE DO RASTRO DE LOCKS                       ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Eventos: %,d | Threads: %,d | Locks: %d | Duração: %,.1f ms | Descartados: %,d%n%n",
+                          total, eventos.length, locks.length, (fim - inicio) / 1e6, descartados);
+
+        reconstruir(colunas);
+        imprimirResumo();
+        imprimirLinhasDoTempo(colunas);
+        imprimirMapaDeCalor(colunas);
+        caminhoCritico();
+
+        System.out.println();
+        System.out.println("💡 Espera = TENTATIVA → ADQUIRIDO; disputada = outra thread liberou o lock");
+        System.out.println("   durante a espera. No caminho crítico, passagem é o intervalo entre uma");
+        System.out.println("   thread liberar e a próxima adquirir: quanto maior a soma de posse e");
+        System.out.println("   passagem de um lock, mais ele serializa a execução.");
+    }
+
+    // ========================================================================
+    // LEITURA
+    // ========================================================================
+
+    /**
+     * Lê cabeçalho, nomes e eventos; retorna o total de eventos
+     */
+    static long ler(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            mapa.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapa.getInt(0) != RastroLocks.MAGICO) {
+                throw new IOException("Não é um rastro de RastroLocks: " + arquivo);
+            }
+            int registro = mapa.getInt(4);
+            int bloco = mapa.getInt(8);
+            long blocos = mapa.getLong(16);
+            descartados = mapa.getLong(24);
+            int offsetNomes = (int) mapa.getLong(32);
+
+            byte[] nomes = new byte[(int) (canal.size() - offsetNomes)];
+            mapa.get(offsetNomes, nomes);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(nomes));
+            locks = new Lock[in.readInt()];
+            for (int i = 0; i < locks.length; i++) {
+                locks[i] = new Lock(in.readUTF(), in.readBoolean());
+            }
+            nomesThreads = new String[in.readInt()];
+            eventos = new EventosThread[nomesThreads.length];
+            for (int i = 0; i < nomesThreads.length; i++) {
+                nomesThreads[i] = in.readUTF();
+                eventos[i] = new EventosThread();
+            }
+
+            long total = 0;
+            for (long b = 0; b < blocos; b++) {
+                int base = (int) (RastroLocks.CABECALHO_BYTES + b * bloco);
+                for (int p = base; p < base + bloco; p += registro) {
+                    int codigo = mapa.getInt(p + 12);
+                    if ((codigo & 0xF) == 0) {
+                        break;  // resto do bloco não usado
+                    }
+                    long t = mapa.getLong(p);
+                    eventos[mapa.getInt(p + 8)].adicionar(t, codigo);
+                    inicio = Math.min(inicio, t);
+                    fim = Math.max(fim, t);
+                    total++;
+                }
+            }
+            return total;
+        }
+    }
+
+    // ========================================================================
+    // RECONSTRUÇÃO: ESPERA, POSSE E LINHAS DO TEMPO
+    // ========================================================================
+
+    static void reconstruir(int colunas) {
+        // 1ª passada: extensão de cada lock e liberações
+        for (int t = 0; t < eventos.length; t++) {
+            EventosThread e = eventos[t];
+            for (int i = 0; i < e.total; i++) {
+                Lock l = locks[e.lock(i)];
+                l.primeiro = Math.min(l.primeiro, e.nanos[i]);
+                l.ultimo = Math.max(l.ultimo, e.nanos[i]);
+                if (e.tipo(i) == RastroLocks.ADQUIRIDO) {
+                    l.threads.add(t);
+                } else if (e.tipo(i) == RastroLocks.LIBERADO) {
+                    l.liberacao((e.nanos[i] - inicio) << BITS_THREAD | t);
+                }
+            }
+        }
+        for (Lock l : locks) {
+            Arrays.sort(l.liberacoes, 0, l.totalLiberacoes);
+            l.ocupado = new double[colunas];
+            l.esperando = new double[colunas];
+            l.possePorThread = new TreeMap<>();
+        }
+
+        // 2ª passada: pares de eventos por thread
+        long[] tentativa = new long[locks.length];
+        long[] adquirido = new long[locks.length];
+        for (int t = 0; t < eventos.length; t++) {
+            EventosThread e = eventos[t];
+            Arrays.fill(tentativa, Long.MIN_VALUE);
+            Arrays.fill(adquirido, Long.MIN_VALUE);
+            for (int i = 0; i < e.total; i++) {
+                int id = e.lock(i);
+                Lock l = locks[id];
+                long agora = e.nanos[i];
+                switch (e.tipo(i)) {
+                    case RastroLocks.TENTATIVA -> tentativa[id] = agora;
+                    case RastroLocks.ESTACIONADO -> l.estacionados++;
+                    case RastroLocks.ADQUIRIDO -> {
+                        l.aquisicoes++;
+                        adquirido[id] = agora;
+                        if (l.monitor) {
+                            continue;  // espera desconhecida
+                        }
+                        if (tentativa[id] == Long.MIN_VALUE) {
+                            l.espera.registrar(0);  // aquisição imediata
+                        } else {
+                            l.espera.registrar(agora - tentativa[id]);
+                            acumular(l.esperando, l, tentativa[id], agora);
+                            if (predecessor(l, t, tentativa[id], agora) >= 0) {
+                                l.disputadas++;
+                            }
+                            tentativa[id] = Long.MIN_VALUE;
+                        }
+                    }
+                    case RastroLocks.LIBERADO -> {
+                        if (adquirido[id] != Long.MIN_VALUE) {
+                            long posse = agora - adquirido[id];
+                            l.posse.registrar(posse);
+                            l.posseTotal += posse;
+                            acumular(l.ocupado, l, adquirido[id], agora);
+                            if (l.threads.size() <= MAX_THREADS_NA_LINHA) {
+                                acumular(l.possePorThread.computeIfAbsent(t, k -> new double[colunas]),
+                                         l, adquirido[id], agora);
+                            }
+                            adquirido[id] = Long.MIN_VALUE;
+                        }
+                    }
+                    default -> { }
+                }
+            }
+        }
+    }
+
+    /**
+     * Soma a sobreposição de [de, ate] com cada coluna da extensão do lock
+     */
+    static void acumular(double[] linha, Lock l, long de, long ate) {
+        acumular(linha, l.primeiro, l.ultimo, de, ate);
+    }
+
+    static void acumular(double[] linha, long origem, long limite, long de, long ate) {
+        int colunas = linha.length;
+        double largura = Math.max(1, limite - origem + 1) / (double) colunas;
+        int c0 = (int) Math.min(colunas - 1, (de - origem) / largura);
+        int c1 = (int) Math.min(colunas - 1, (ate - origem) / largura);
+        for (int c = c0; c <= c1; c++) {
+            double a = Math.max(de, origem + c * largura);
+            double b = Math.min(ate, origem + (c + 1) * largura);
+            if (b > a) {
+                linha[c] += (b - a) / largura;
+            }
+        }
+    }
+
+    /**
+     * Thread que liberou o lock por último antes de ate, se outra thread e
+     * dentro de [desde, ate] (aquisição disputada); senão -1
+     */
+    static int predecessor(Lock l, int thread, long desde, long ate) {
+        int i = ultimaLiberacaoAte(l, ate);
+        if (i < 0) {
+            return -1;
+        }
+        long chave = l.liberacoes[i];
+        int dono = (int) (chave & ((1 << BITS_THREAD) - 1));
+        long quando = (chave >>> BITS_THREAD) + inicio;
+        return dono != thread && quando >= desde ? dono : -1;
+    }
+
+    static int ultimaLiberacaoAte(Lock l, long ate) {
+        long alvo = (ate - inicio) << BITS_THREAD | ((1 << BITS_THREAD) - 1);
+        int i = Arrays.binarySearch(l.liberacoes, 0, l.totalLiberacoes, alvo);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    // ========================================================================
+    // RELATÓRIOS
+    // ========================================================================
+
+    static void imprimirResumo() {
+        System.out.println("1. Por lock (tempos em ns)");
+        System.out.printf("   %-22s %12s %9s %10s %10s %12s %10s %10s %12s%n", "Lock", "Aquisições",
+                          "Disput.", "Espera p50", "p99", "max", "Posse p50", "p99", "Utilização");
+        for (Lock l : locks) {
+            if (l.aquisicoes == 0) {
+                continue;
+            }
+            double extensao = Math.max(1, l.ultimo - l.primeiro);
+            if (l.monitor) {
+                System.out.printf("   %-22s %,12d %9s %10s %10s %12s %,10d %,10d %11.1f%%%n",
+                                  abreviar(l.nome + " *", 22), l.aquisicoes, "n/d", "n/d", "n/d", "n/d",
+                                  l.posse.percentil(50), l.posse.percentil(99),
+                                  100.0 * l.posseTotal / extensao);
+                continue;
+            }
+            System.out.printf("   %-22s %,12d %8.1f%% %,10d %,10d %,12d %,10d %,10d %11.1f%%%n",
+                              l.nome, l.aquisicoes, 100.0 * l.disputadas / l.aquisicoes,
+                              l.espera.percentil(50), l.espera.percentil(99), l.espera.max(),
+                              l.posse.percentil(50), l.posse.percentil(99),
+                              100.0 * l.posseTotal / extensao);
+        }
+        if (Arrays.stream(locks).anyMatch(l -> l.monitor && l.aquisicoes > 0)) {
+            System.out.println("   * monitor: sem tentativa imediata, a espera é desconhecida e está");
+            System.out.println("     somada à posse (e à utilização)");
+        }
+        System.out.println();
+    }
+
+    static void imprimirLinhasDoTempo(int colunas) {
+        System.out.println("2. Linhas do tempo por lock (cada coluna = 1/" + colunas + " da atividade do lock)");
+        for (Lock l : locks) {
+            if (l.aquisicoes == 0) {
+                continue;
+            }
+            System.out.printf("   %s  [%,.1f ms]%n", l.nome, (l.ultimo - l.primeiro) / 1e6);
+            double maxEspera = Arrays.stream(l.esperando).max().orElse(0);
+            System.out.printf("     %-12s |%s| 100%%%n", "ocupado", niveis(l.ocupado, 1));
+            if (l.monitor) {
+                System.out.printf("     %-12s  n/d (monitor: espera desconhecida)%n", "esperando");
+            } else {
+                System.out.printf("     %-12s |%s| %.1f threads%n", "esperando", niveis(l.esperando, maxEspera),
+                                  maxEspera);
+            }
+            for (Map.Entry<Integer, double[]> posse : l.possePorThread.entrySet()) {
+                System.out.printf("     %-12s |%s|%n", abreviar(nomesThreads[posse.getKey()], 12),
+                                  niveis(posse.getValue(), 1));
+            }
+        }
+        System.out.println("   (linhas por thread: fração do tempo segurando o lock)");
+        System.out.println();
+    }
+
+    static void imprimirMapaDeCalor(int colunas) {
+        System.out.println("3. Mapa de calor de contenção (threads esperando, escala \"" + CALOR + "\")");
+        double[][] linhas = new double[locks.length][colunas];
+        double max = 0;
+        for (int t = 0; t < eventos.length; t++) {
+            EventosThread e = eventos[t];
+            long[] tentativa = new long[locks.length];
+            Arrays.fill(tentativa, Long.MIN_VALUE);
+            for (int i = 0; i < e.total; i++) {
+                int id = e.lock(i);
+                if (e.tipo(i) == RastroLocks.TENTATIVA) {
+                    tentativa[id] = e.nanos[i];
+                } else if (e.tipo(i) == RastroLocks.ADQUIRIDO && tentativa[id] != Long.MIN_VALUE) {
+                    acumular(linhas[id], inicio, fim, tentativa[id], e.nanos[i]);
+                    tentativa[id] = Long.MIN_VALUE;
+                }
+            }
+        }
+        for (double[] linha : linhas) {
+            for (double v : linha) {
+                max = Math.max(max, v);
+            }
+        }
+        for (int id = 0; id < locks.length; id++) {
+            if (locks[id].aquisicoes > 0 && locks[id].monitor) {
+                System.out.printf("   %-22s  n/d (monitor: espera desconhecida)%n", abreviar(locks[id].nome, 22));
+            } else if (locks[id].aquisicoes > 0) {
+                System.out.printf("   %-22s |%s|%n", abreviar(locks[id].nome, 22), calor(linhas[id], max));
+            }
+        }
+        System.out.printf("   %-22s  0 ms%" + (colunas - 4) + "s%n", "", String.format("%,.0f ms", (fim - inicio) / 1e6));
+        System.out.printf("   (@ = %.1f threads esperando em média no intervalo)%n%n", max);
+    }
+
+    // ========================================================================
+    // CAMINHO CRÍTICO
+    // ========================================================================
+
+    /**
+     * Volta do último evento do rastro pelas aquisições disputadas: o tempo
+     * de uma thread desde a aquisição até o ponto atual está no caminho; antes
+     * dela, o caminho passa para a thread que liberou o lock (a espera da
+     * thread atual não estava no caminho, a posse da anterior sim). Sem
+     * aquisição disputada, segue pela última thread ativa antes do início
+     * da atual.
+     */
+    static void caminhoCritico() {
+        int t = -1;
+        for (int i = 0; i < eventos.length; i++) {
+            EventosThread e = eventos[i];
+            if (e.total > 0 && (t < 0 || e.nanos[e.total - 1] > eventos[t].nanos[eventos[t].total - 1])) {
+                t = i;
+            }
+        }
+        if (t < 0) {
+            return;
+        }
+        long[] foraDeLocks = {0};
+        long semRastro = 0;
+        int idx = eventos[t].total - 1;
+        long agora = eventos[t].nanos[idx];
+
+        while (true) {
+            EventosThread e = eventos[t];
+            int j = idx;
+            int anterior = -1;
+            long liberado = 0;
+            for (; j >= 0; j--) {
+                if (e.tipo(j) == RastroLocks.ADQUIRIDO) {
+                    Lock l = locks[e.lock(j)];
+                    anterior = predecessor(l, t, tentativaAntes(e, j), e.nanos[j]);
+                    if (anterior >= 0) {
+                        liberado = (l.liberacoes[ultimaLiberacaoAte(l, e.nanos[j])] >>> BITS_THREAD) + inicio;
+                        break;
+                    }
+                }
+            }
+            if (j < 0) {
+                atribuir(e, 0, idx, e.nanos[0], agora, foraDeLocks);
+                // Nenhuma dependência antes: o caminho segue pela última
+                // thread ativa antes do primeiro evento desta (fase anterior)
+                int q = -1;
+                int kq = -1;
+                for (int i = 0; i < eventos.length; i++) {
+                    int k = ultimoAntes(eventos[i], e.nanos[0]);
+                    if (k >= 0 && (q < 0 || eventos[i].nanos[k] > eventos[q].nanos[kq])) {
+                        q = i;
+                        kq = k;
+                    }
+                }
+                if (q < 0) {
+                    semRastro += e.nanos[0] - inicio;
+                    break;
+                }
+                semRastro += e.nanos[0] - eventos[q].nanos[kq];
+                t = q;
+                idx = kq;
+                agora = eventos[q].nanos[kq];
+                continue;
+            }
+            atribuir(e, j, idx, e.nanos[j], agora, foraDeLocks);
+            Lock l = locks[e.lock(j)];
+            l.caminhoPassagem += e.nanos[j] - liberado;
+            l.passagens++;
+
+            // Continua na thread anterior, a partir do seu LIBERADO deste lock
+            EventosThread p = eventos[anterior];
+            int k = Arrays.binarySearch(p.nanos, 0, p.total, liberado);
+            k = k >= 0 ? k : -k - 2;
+            while (k < p.total - 1 && p.nanos[k + 1] == liberado) {
+                k++;
+            }
+            while (k > 0 && !(p.tipo(k) == RastroLocks.LIBERADO && p.lock(k) == e.lock(j))) {
+                k--;
+            }
+            t = anterior;
+            idx = k;
+            agora = liberado;
+        }
+
+        long total = fim - inicio;
+        long passagens = 0;
+        System.out.printf("4. Caminho crítico: %,.3f ms%n", total / 1e6);
+        System.out.printf("   %-40s %12s %8s%n", "Componente", "ms", "%");
+        List<Object[]> partes = new ArrayList<>();
+        for (Lock l : locks) {
+            if (l.caminhoPosse > 0) {
+                partes.add(new Object[] {"seção crítica: " + l.nome, l.caminhoPosse});
+            }
+            if (l.caminhoPassagem > 0) {
+                partes.add(new Object[] {"passagem (" + l.passagens + "x): " + l.nome, l.caminhoPassagem});
+            }
+            passagens += l.passagens;
+        }
+        partes.add(new Object[] {"fora de locks", foraDeLocks[0]});
+        partes.add(new Object[] {"sem eventos de lock (entre fases)", semRastro});
+        partes.sort((a, b) -> Long.compare((Long) b[1], (Long) a[1]));
+        for (Object[] parte : partes) {
+            long ns = (Long) parte[1];
+            System.out.printf("   %-40s %,12.3f %7.1f%%%n", abreviar((String) parte[0], 40), ns / 1e6,
+                              100.0 * ns / Math.max(1, total));
+        }
+        System.out.printf("   %,d passagens de lock entre threads no caminho%n", passagens);
+    }
+
+    /**
+     * Índice do último evento da thread estritamente antes de x, ou -1
+     */
+    static int ultimoAntes(EventosThread e, long x) {
+        int k = Arrays.binarySearch(e.nanos, 0, e.total, x);
+        if (k < 0) {
+            return -k - 2;
+        }
+        while (k >= 0 && e.nanos[k] == x) {
+            k--;
+        }
+        return k;
+    }
+
+    /**
+     * TENTATIVA correspondente ao ADQUIRIDO em j (ou o próprio instante, se
+     * a aquisição foi imediata)
+     */
+    static long tentativaAntes(EventosThread e, int j) {
+        int id = e.lock(j);
+        for (int k = j - 1; k >= 0 && k >= j - 8; k--) {
+            if (e.lock(k) == id && e.tipo(k) == RastroLocks.TENTATIVA) {
+                return e.nanos[k];
+            }
+            if (e.lock(k) == id && e.tipo(k) != RastroLocks.ESTACIONADO) {
+                break;
+            }
+        }
+        return e.nanos[j];
+    }
+
+    /**
+     * Distribui [de, ate] da thread entre o lock mais interno seguro em cada
+     * momento e "fora de locks", percorrendo os eventos de i0 a i1
+     */
+    static void atribuir(EventosThread e, int i0, int i1, long de, long ate, long[] foraDeLocks) {
+        Deque<Integer> seguros = new ArrayDeque<>();
+        long anterior = de;
+        for (int i = i0; i <= i1; i++) {
+            long t = Math.min(e.nanos[i], ate);
+            if (seguros.isEmpty()) {
+                foraDeLocks[0] += t - anterior;
+            } else {
+                locks[seguros.peek()].caminhoPosse += t - anterior;
+            }
+            anterior = t;
+            int id = e.lock(i);
+            if (e.tipo(i) == RastroLocks.ADQUIRIDO) {
+                seguros.push(id);
+            } else if (e.tipo(i) == RastroLocks.LIBERADO) {
+                seguros.remove(id);
+            }
+        }
+        if (seguros.isEmpty()) {
+            foraDeLocks[0] += ate - anterior;
+        } else {
+            locks[seguros.peek()].caminhoPosse += ate - anterior;
+        }
+    }
+
+    // ========================================================================
+    // FORMATAÇÃO
+    // ========================================================================
+
+    static String niveis(double[] linha, double maximo) {
+        StringBuilder sb = new StringBuilder();
+        for (double v : linha) {
+            int n = maximo <= 0 ? 0 : (int) Math.round(Math.min(1, v / maximo) * (NIVEIS.length() - 1));
+            sb.append(NIVEIS.charAt(n));
+        }
+        return sb.toString();
+    }
+
+    static String calor(double[] linha, double maximo) {
+        StringBuilder sb = new StringBuilder();
+        for (double v : linha) {
+            int n = maximo <= 0 ? 0 : (int) Math.ceil(Math.min(1, v / maximo) * (CALOR.length() - 1));
+            sb.append(CALOR.charAt(n));
+        }
+        return sb.toString();
+    }
+
+    static String abreviar(String s, int largura) {
+        return s.length() <= largura ? s : s.substring(0, largura - 1) + "…";
+    }
+}
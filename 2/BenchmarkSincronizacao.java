@@ -0,0 +1,864 @@
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Benchmark no estilo JMH para os mecanismos de ComparacaoSincronizacao.
+ *
+ * Diferente de runTest(), que mede uma única execução "fria" incluindo a
+ * criação do pool, aqui cada medição roda em uma JVM separada (fork), com
+ * iterações de aquecimento (warmup) descartadas, threads persistentes entre
+ * iterações e intervalo de confiança de 99,9% sobre todas as iterações medidas.
+ *
+ * Com -lat, uma a cada AMOSTRAGEM_LATENCIA operações medidas é cronometrada;
+ * os histogramas de todos os forks dão p50/p99/p99.9 por benchmark (incluindo
+ * o custo da leitura do relógio). Sem -lat o laço medido não tem amostragem:
+ * o teste por operação e os nanoTime pesam no Score dos mecanismos rápidos.
+ *
+ * Uso:
+ *   java BenchmarkSincronizacao [-f forks] [-wi warmup] [-i iteracoes]
+ *                               [-r ms | -ops n] [-t 1,2,4,8] [-g 3:1]
+ *                               [-m NOME,...] [-prof gc|cpu|perfnorm] [-jvmArgs "..."]
+ *                               [-cs passos] [-lat] [-json arquivo]
+ *                               [-baseline arquivo] [-limiar %]
+ *
+ *   -t  lista de contagens de threads (equivalente a @Threads)
+ *   -g  grupos assimétricos incrementadores:leitores (equivalente a @Group)
+ *   -ops orçamento de operações por thread em cada iteração, em vez de -r
+ *   -cs trabalho simulado dentro da seção crítica dos locks (padrão 0)
+ *   -prof cpu tempo de CPU dos workers por operação, ops por segundo de CPU
+ *       e trocas de contexto (voluntárias/involuntárias, via /proc)
+ *   -lat amostra a latência por operação (percentis p50/p99/p99.9)
+ *   -json grava os resultados (throughput, erro, percentis) em JSON
+ *   -baseline compara com um JSON gravado antes (ex.: no JDK anterior) e
+ *       termina com código 2 se throughput ou p99 (com -lat nos dois) piorarem
+ *       mais que -limiar e acima do ruído entre forks
+ *       (padrão 10%)
+ *   -f 0 executa tudo na própria JVM (útil apenas para depuração)
+ */
+public class BenchmarkSincronizacao {
+
+    // Configuração padrão (mesmos valores default do JMH, exceto duração)
+    static int forks = 3;
+    static int warmupIteracoes = 5;
+    static int medicaoIteracoes = 5;
+    static int duracaoIteracaoMs = 1000;
+    static List<String> configuracoes = new ArrayList<>();
+    static List<Mecanismo> mecanismos = new ArrayList<>(List.of(Mecanismo.values()));
+    static Set<String> profilers = new LinkedHashSet<>();
+    static List<String> jvmArgs = new ArrayList<>();
+    static long operacoesPorIteracao = 0;  // 0 = iterações por duração (-r)
+    static String arquivoJson;
+    static String arquivoBaseline;
+    static double limiarRegressao = 10;
+    static boolean latencia = false;
+
+    // 1 a cada AMOSTRAGEM_LATENCIA operações é cronometrada: os percentis sem
+    // pagar dois nanoTime em toda operação
+    static final int AMOSTRAGEM_LATENCIA = 64;
+
+    // Piora mínima do p99 para contar como regressão: abaixo disso a
+    // diferença é do relógio (cada amostra paga duas leituras de nanoTime,
+    // de 20 a 40 ns cada, com jitter da mesma ordem)
+    static final long PISO_P99_NS = 100;
+
+    // Evita que o JIT elimine as leituras (papel do Blackhole do JMH)
+    static volatile long sumidouro;
+
+    // Eventos medidos pelo profiler perfnorm (perf stat)
+    static final String PERF_EVENTOS = "cycles,instructions,branches,branch-misses,"
+                                     + "L1-dcache-loads,L1-dcache-load-misses,cache-misses";
+
+    // Quantis t de Student bicaudais para 99,9% (graus de liberdade 1..30)
+    static final double[] T_999 = {
+        636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+        4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+        3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+    };
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            executarFilho(args);
+            return;
+        }
+
+        lerOpcoes(args);
+
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  BENCHMARK DE MECANISMOS DE SINCRONIZAÇÃO (JMH-style)  ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        String iteracao = operacoesPorIteracao > 0
+            ? String.format("%,d ops/thread", operacoesPorIteracao)
+            : duracaoIteracaoMs + " ms";
+        System.out.printf("Forks: %d | Warmup: %d x %s | Medição: %d x %s%n",
+                          forks, warmupIteracoes, iteracao, medicaoIteracoes, iteracao);
+        System.out.printf("Configurações de threads: %s | Profilers: %s | Seção crítica: %d%n%n",
+                          configuracoes, profilers.isEmpty() ? "-" : profilers,
+                          Mecanismo.trabalhoSecaoCritica);
+
+        List<Resumo> resumos = new ArrayList<>();
+
+        for (Mecanismo mecanismo : mecanismos) {
+            for (String cfg : configuracoes) {
+                System.out.println("─────────────────────────────────────────────────────────");
+                System.out.printf("# Benchmark: %s | Threads: %s%n", mecanismo.nome, cfg);
+                System.out.println("─────────────────────────────────────────────────────────");
+                resumos.add(executarBenchmark(mecanismo, cfg));
+                System.out.println();
+            }
+        }
+
+        imprimirTabela(resumos);
+
+        if (arquivoJson != null) {
+            escreverJson(resumos, Paths.get(arquivoJson));
+            System.out.println("📄 Resultados gravados em " + arquivoJson);
+        }
+        if (arquivoBaseline != null && compararComBaseline(resumos, Paths.get(arquivoBaseline)) > 0) {
+            System.exit(2);
+        }
+    }
+
+    // ========================================================================
+    // PROCESSO PAI: FORKS E AGREGAÇÃO
+    // ========================================================================
+
+    /**
+     * Resultado agregado de um benchmark (todas as iterações de todos os forks)
+     */
+    static class Resumo {
+        final Mecanismo mecanismo;
+        final String configuracao;
+        final List<Double> incrementos = new ArrayList<>();
+        final List<Double> leituras = new ArrayList<>();
+        final Map<String, List<Double>> secundarios = new TreeMap<>();
+        final HistogramaLatencia latencia = new HistogramaLatencia();
+        final List<Long> p99PorFork = new ArrayList<>();
+
+        Resumo(Mecanismo mecanismo, String configuracao) {
+            this.mecanismo = mecanismo;
+            this.configuracao = configuracao;
+        }
+
+        void secundario(String nome, double valor) {
+            secundarios.computeIfAbsent(nome, k -> new ArrayList<>()).add(valor);
+        }
+
+        /**
+         * Diferença entre o maior e o menor p99 dos forks (0 com um fork)
+         */
+        long dispersaoP99() {
+            return p99PorFork.isEmpty() ? 0
+                : Collections.max(p99PorFork) - Collections.min(p99PorFork);
+        }
+
+        /**
+         * Throughput total (incrementos + leituras) de cada iteração medida
+         */
+        List<Double> total() {
+            List<Double> total = new ArrayList<>();
+            for (int i = 0; i < incrementos.size(); i++) {
+                total.add(incrementos.get(i) + leituras.get(i));
+            }
+            return total;
+        }
+    }
+
+    static Resumo executarBenchmark(Mecanismo mecanismo, String cfg) throws Exception {
+        Resumo resumo = new Resumo(mecanismo, cfg);
+
+        if (forks == 0) {
+            System.out.println("⚠️  -f 0: executando na mesma JVM (resultados menos confiáveis)");
+            PrintStream original = System.out;
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            System.setOut(new PrintStream(buffer, true));
+            try {
+                executarIteracoes(mecanismo, cfg);
+            } finally {
+                System.setOut(original);
+            }
+            for (String linha : buffer.toString().split("\n")) {
+                processarLinha(linha, resumo, 1);
+            }
+            return resumo;
+        }
+
+        for (int f = 1; f <= forks; f++) {
+            System.out.printf("# Fork: %d de %d%n", f, forks);
+
+            Path perfSaida = null;
+            List<String> comando = new ArrayList<>();
+            if (profilers.contains("perfnorm")) {
+                perfSaida = Files.createTempFile("perfnorm", ".csv");
+                comando.addAll(List.of("perf", "stat", "-x", ",", "-e", PERF_EVENTOS,
+                                       "-o", perfSaida.toString(), "--"));
+            }
+            comando.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            comando.addAll(jvmArgs);
+            comando.addAll(List.of("-cp", System.getProperty("java.class.path"),
+                                   "BenchmarkSincronizacao", "--filho", mecanismo.name(), cfg,
+                                   String.valueOf(warmupIteracoes),
+                                   String.valueOf(medicaoIteracoes),
+                                   String.valueOf(duracaoIteracaoMs),
+                                   String.valueOf(Mecanismo.trabalhoSecaoCritica),
+                                   String.join(",", profilers),
+                                   String.valueOf(operacoesPorIteracao),
+                                   String.valueOf(latencia)));
+
+            Process processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+            long totalOps = 0;
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(processo.getInputStream()))) {
+                String linha;
+                while ((linha = in.readLine()) != null) {
+                    long ops = processarLinha(linha, resumo, f);
+                    if (ops > 0) totalOps = ops;
+                }
+            }
+
+            int status = processo.waitFor();
+            if (status != 0) {
+                throw new IllegalStateException("Fork terminou com código " + status);
+            }
+
+            if (perfSaida != null) {
+                lerPerfnorm(perfSaida, totalOps, resumo);
+                Files.deleteIfExists(perfSaida);
+            }
+        }
+
+        return resumo;
+    }
+
+    /**
+     * Interpreta uma linha emitida pelo filho. Linhas que começam com '#'
+     * são dados; as demais são progresso e vão direto para o console.
+     * Retorna o total de operações quando a linha for "#OPS", senão 0.
+     */
+    static long processarLinha(String linha, Resumo resumo, int fork) {
+        if (linha.isEmpty()) {
+            return 0;
+        }
+        if (!linha.startsWith("#")) {
+            System.out.println(linha);
+            return 0;
+        }
+
+        String[] partes = linha.split(" ");
+        switch (partes[0]) {
+            case "#ITER":
+                resumo.incrementos.add(Double.parseDouble(partes[1]));
+                resumo.leituras.add(Double.parseDouble(partes[2]));
+                break;
+            case "#PROF":
+                resumo.secundario(partes[1], Double.parseDouble(partes[2]));
+                break;
+            case "#HIST":
+                HistogramaLatencia doFork = HistogramaLatencia.desserializar(linha.substring(6));
+                resumo.p99PorFork.add(doFork.percentil(99));
+                resumo.latencia.mesclar(doFork);
+                break;
+            case "#OPS":
+                return Long.parseLong(partes[1]);
+            default:
+                System.out.println(linha);
+        }
+        return 0;
+    }
+
+    /**
+     * Normaliza os contadores do perf pelo número de operações do fork
+     * (mesma abordagem do -prof perfnorm: inclui o warmup no total).
+     */
+    static void lerPerfnorm(Path arquivo, long totalOps, Resumo resumo) throws IOException {
+        if (totalOps <= 0) {
+            return;
+        }
+        for (String linha : Files.readAllLines(arquivo)) {
+            String[] campos = linha.split(",");
+            if (linha.startsWith("#") || campos.length < 3) {
+                continue;
+            }
+            try {
+                double valor = Double.parseDouble(campos[0]);
+                resumo.secundario("perfnorm." + campos[2], valor / totalOps);
+            } catch (NumberFormatException e) {
+                // "<not supported>" / "<not counted>": evento indisponível nesta máquina
+            }
+        }
+    }
+
+    // ========================================================================
+    // PROCESSO FILHO: WARMUP + MEDIÇÃO
+    // ========================================================================
+
+    static void executarFilho(String[] args) throws Exception {
+        Mecanismo mecanismo = Mecanismo.valueOf(args[1]);
+        warmupIteracoes = Integer.parseInt(args[3]);
+        medicaoIteracoes = Integer.parseInt(args[4]);
+        duracaoIteracaoMs = Integer.parseInt(args[5]);
+        Mecanismo.trabalhoSecaoCritica = Integer.parseInt(args[6]);
+        profilers.clear();
+        if (args.length > 7 && !args[7].isEmpty()) {
+            profilers.addAll(Arrays.asList(args[7].split(",")));
+        }
+        if (args.length > 8) {
+            operacoesPorIteracao = Long.parseLong(args[8]);
+        }
+        if (args.length > 9) {
+            latencia = Boolean.parseBoolean(args[9]);
+        }
+        executarIteracoes(mecanismo, args[2]);
+    }
+
+    /**
+     * Executa warmup e medição com threads persistentes. Cada thread mede o
+     * próprio tempo e o throughput da iteração é a soma de ops/tempo de cada
+     * thread (mesma agregação do modo Throughput do JMH).
+     *
+     * Com -ops, cada thread para sozinha ao completar o orçamento e a
+     * iteração termina quando a última chega na barreira.
+     */
+    static void executarIteracoes(Mecanismo mecanismo, String cfg) throws Exception {
+        int incrementadores;
+        int leitores;
+        if (cfg.contains(":")) {
+            String[] grupo = cfg.split(":");
+            incrementadores = Integer.parseInt(grupo[0]);
+            leitores = Integer.parseInt(grupo[1]);
+        } else {
+            incrementadores = Integer.parseInt(cfg);
+            leitores = 0;
+        }
+        int n = incrementadores + leitores;
+        int iteracoes = warmupIteracoes + medicaoIteracoes;
+
+        Contador contador = mecanismo.criar();
+        Controle controle = new Controle(n);
+        Thread[] workers = new Thread[n];
+        long orcamento = operacoesPorIteracao > 0 ? operacoesPorIteracao : -1;
+
+        for (int w = 0; w < n; w++) {
+            int id = w;
+            boolean leitor = w >= incrementadores;
+            workers[w] = new Thread(() -> {
+                try {
+                    controle.status[id] = Consumo.statusDaThreadAtual();
+                    // Com -lat o warmup também roda o laço de amostragem (senão ele
+                    // só seria compilado durante a medição); as amostras do
+                    // warmup vão para um histograma descartado
+                    HistogramaLatencia descarte = new HistogramaLatencia();
+                    for (int it = 0; it < iteracoes; it++) {
+                        HistogramaLatencia histograma =
+                            it >= warmupIteracoes ? controle.latencias[id] : descarte;
+                        controle.inicio.await();
+                        long ops = 0;
+                        long soma = 0;
+                        long t0 = System.nanoTime();
+                        if (latencia) {
+                            while (controle.emExecucao && ops != orcamento) {
+                                boolean amostra = (ops & (AMOSTRAGEM_LATENCIA - 1)) == 0;
+                                long a = amostra ? System.nanoTime() : 0;
+                                if (leitor) {
+                                    soma += contador.valor();
+                                } else {
+                                    contador.incrementar();
+                                }
+                                if (amostra) {
+                                    histograma.registrar(System.nanoTime() - a);
+                                }
+                                ops++;
+                            }
+                        } else {
+                            // Laço separado: sem -lat, nada além da operação
+                            while (controle.emExecucao && ops != orcamento) {
+                                if (leitor) {
+                                    soma += contador.valor();
+                                } else {
+                                    contador.incrementar();
+                                }
+                                ops++;
+                            }
+                        }
+                        long t1 = System.nanoTime();
+                        controle.ops[id] = ops;
+                        controle.nanos[id] = t1 - t0;
+                        sumidouro += soma;
+                        controle.fim.await();
+                    }
+                    // Vivo até a leitura das métricas da última iteração: de
+                    // thread encerrada, CPU e bytes alocados voltam -1
+                    controle.inicio.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "bench-worker-" + w);
+            workers[w].setDaemon(true);
+            workers[w].start();
+        }
+
+        com.sun.management.ThreadMXBean tmx =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        boolean gc = profilers.contains("gc");
+        boolean cpu = profilers.contains("cpu");
+        long totalOps = 0;
+
+        for (int it = 0; it < iteracoes; it++) {
+            boolean medicao = it >= warmupIteracoes;
+
+            long alocadoAntes = gc ? bytesAlocados(tmx, workers) : 0;
+            long[] gcAntes = gc ? Consumo.contadoresGc() : null;
+            long cpuAntes = cpu ? tempoCpu(tmx, workers) : 0;
+            long[] trocasAntes = cpu ? trocasDeContexto(controle) : null;
+
+            controle.emExecucao = true;
+            controle.inicio.await();
+            long inicioIteracao = System.nanoTime();
+            if (operacoesPorIteracao == 0) {
+                Thread.sleep(duracaoIteracaoMs);
+                controle.emExecucao = false;
+            }
+            controle.fim.await();
+            double segundos = (System.nanoTime() - inicioIteracao) / 1e9;
+
+            double incr = 0;
+            double leit = 0;
+            long opsIteracao = 0;
+            for (int w = 0; w < n; w++) {
+                double taxa = controle.ops[w] * 1e9 / controle.nanos[w];
+                if (w < incrementadores) incr += taxa; else leit += taxa;
+                opsIteracao += controle.ops[w];
+            }
+            totalOps += opsIteracao;
+
+            String rotulo = medicao
+                ? String.format("Iteration %3d", it - warmupIteracoes + 1)
+                : String.format("# Warmup Iteration %3d", it + 1);
+            if (leitores > 0) {
+                System.out.printf("%s: %,.0f ops/s (incr: %,.0f | leitura: %,.0f)%n",
+                                  rotulo, incr + leit, incr, leit);
+            } else {
+                System.out.printf("%s: %,.0f ops/s%n", rotulo, incr);
+            }
+
+            if (medicao) {
+                System.out.println("#ITER " + incr + " " + leit);
+                if (gc) {
+                    long alocado = bytesAlocados(tmx, workers) - alocadoAntes;
+                    long[] gcDepois = Consumo.contadoresGc();
+                    System.out.println("#PROF gc.alloc.rate.norm "
+                                       + (double) alocado / Math.max(1, opsIteracao));
+                    System.out.println("#PROF gc.alloc.rate "
+                                       + alocado / 1048576.0 / segundos);
+                    System.out.println("#PROF gc.count " + (gcDepois[0] - gcAntes[0]));
+                    System.out.println("#PROF gc.time " + (gcDepois[1] - gcAntes[1]));
+                }
+                if (cpu) {
+                    long cpuNanos = tempoCpu(tmx, workers) - cpuAntes;
+                    System.out.println("#PROF cpu.time.norm "
+                                       + (double) cpuNanos / Math.max(1, opsIteracao));
+                    System.out.println("#PROF cpu.ops.s " + opsIteracao / (cpuNanos / 1e9));
+                    long[] trocasDepois = trocasDeContexto(controle);
+                    if (trocasAntes != null && trocasDepois != null) {
+                        System.out.println("#PROF ctx.voluntarias " + (trocasDepois[0] - trocasAntes[0]));
+                        System.out.println("#PROF ctx.involuntarias " + (trocasDepois[1] - trocasAntes[1]));
+                    }
+                }
+            }
+        }
+
+        controle.inicio.await();  // libera os workers
+
+        if (latencia) {
+            HistogramaLatencia histograma = new HistogramaLatencia();
+            for (HistogramaLatencia h : controle.latencias) {
+                histograma.mesclar(h);
+            }
+            System.out.println("#HIST " + histograma.serializar());
+        }
+        System.out.println("#OPS " + totalOps);
+    }
+
+    /**
+     * Sinais compartilhados entre a thread de controle e os workers
+     */
+    static class Controle {
+        final CyclicBarrier inicio;
+        final CyclicBarrier fim;
+        final long[] ops;
+        final long[] nanos;
+        final HistogramaLatencia[] latencias;  // um por worker, lido após a última barreira
+        final Path[] status;                   // /proc/.../task/<tid>/status de cada worker
+        volatile boolean emExecucao;
+
+        Controle(int n) {
+            inicio = new CyclicBarrier(n + 1);
+            fim = new CyclicBarrier(n + 1);
+            ops = new long[n];
+            nanos = new long[n];
+            latencias = new HistogramaLatencia[n];
+            status = new Path[n];
+            for (int i = 0; i < n; i++) {
+                latencias[i] = new HistogramaLatencia();
+            }
+        }
+    }
+
+    static long bytesAlocados(com.sun.management.ThreadMXBean tmx, Thread[] workers) {
+        long total = 0;
+        for (Thread w : workers) {
+            total += Math.max(0, tmx.getThreadAllocatedBytes(w.threadId()));
+        }
+        return total;
+    }
+
+    static long tempoCpu(com.sun.management.ThreadMXBean tmx, Thread[] workers) {
+        long total = 0;
+        for (Thread w : workers) {
+            total += Math.max(0, tmx.getThreadCpuTime(w.threadId()));
+        }
+        return total;
+    }
+
+    /**
+     * {voluntárias, involuntárias} somadas dos workers, ou null se /proc não
+     * estiver disponível
+     */
+    static long[] trocasDeContexto(Controle controle) {
+        long[] total = new long[2];
+        for (Path status : controle.status) {
+            long[] trocas = status == null ? null : Consumo.trocasDeContexto(status);
+            if (trocas == null) {
+                return null;
+            }
+            total[0] += trocas[0];
+            total[1] += trocas[1];
+        }
+        return total;
+    }
+
+    // ========================================================================
+    // ESTATÍSTICA E RELATÓRIO
+    // ========================================================================
+
+    static double media(List<Double> valores) {
+        double soma = 0;
+        for (double v : valores) soma += v;
+        return valores.isEmpty() ? Double.NaN : soma / valores.size();
+    }
+
+    /**
+     * Semi-amplitude do intervalo de confiança de 99,9% (t de Student)
+     */
+    static double erro(List<Double> valores) {
+        int n = valores.size();
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double m = media(valores);
+        double soma = 0;
+        for (double v : valores) soma += (v - m) * (v - m);
+        double desvio = Math.sqrt(soma / (n - 1));
+        return quantilT(n - 1) * desvio / Math.sqrt(n);
+    }
+
+    /**
+     * Quantil 0,9995 da distribuição t. Até 30 graus de liberdade usa a
+     * tabela; acima disso, a expansão de Cornish-Fisher já é precisa.
+     */
+    static double quantilT(int gl) {
+        if (gl <= T_999.length) {
+            return T_999[gl - 1];
+        }
+        double z = 3.290527;  // quantil 0,9995 da normal
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        double z7 = z5 * z * z;
+        return z
+             + (z3 + z) / (4.0 * gl)
+             + (5 * z5 + 16 * z3 + 3 * z) / (96.0 * gl * gl)
+             + (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384.0 * gl * gl * gl);
+    }
+
+    static void imprimirTabela(List<Resumo> resumos) {
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  RESULTADOS (Throughput, IC 99,9%)                     ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("%-36s %8s %5s %16s   %14s  %s%n",
+                          "Benchmark", "Threads", "Cnt", "Score", "Error", "Units");
+
+        for (Resumo r : resumos) {
+            imprimirLinha(r.mecanismo.nome, r.configuracao, r.total(), "ops/s");
+
+            if (r.configuracao.contains(":")) {
+                imprimirLinha(r.mecanismo.nome + ":incrementar", r.configuracao, r.incrementos, "ops/s");
+                imprimirLinha(r.mecanismo.nome + ":ler", r.configuracao, r.leituras, "ops/s");
+            }
+            for (Map.Entry<String, List<Double>> e : r.secundarios.entrySet()) {
+                imprimirLinha(r.mecanismo.nome + ":·" + e.getKey(), r.configuracao,
+                              e.getValue(), unidade(e.getKey()));
+            }
+            String[] rotulos = {"p0.50", "p0.99", "p0.999"};
+            double[] percentis = {50, 99, 99.9};
+            for (int i = 0; i < percentis.length && r.latencia.total() > 0; i++) {
+                System.out.printf("%-36s %8s %5d %,16d   %14s  %s%n",
+                                  r.mecanismo.nome + ":·" + rotulos[i], r.configuracao,
+                                  r.incrementos.size(), r.latencia.percentil(percentis[i]), "", "ns/op");
+            }
+        }
+        System.out.println();
+        System.out.println("💡 Compare mecanismos apenas quando os intervalos (Score ± Error)");
+        System.out.println("   não se sobrepõem; caso contrário a diferença não é significativa.");
+    }
+
+    static void imprimirLinha(String nome, String cfg, List<Double> valores, String unidade) {
+        System.out.printf("%-36s %8s %5d %,16.3f ± %,14.3f  %s%n",
+                          nome, cfg, valores.size(), media(valores), erro(valores), unidade);
+    }
+
+    static String unidade(String metrica) {
+        if (metrica.equals("gc.alloc.rate.norm")) return "B/op";
+        if (metrica.equals("gc.alloc.rate")) return "MB/s";
+        if (metrica.equals("gc.count")) return "counts";
+        if (metrica.equals("gc.time")) return "ms";
+        if (metrica.equals("cpu.time.norm")) return "ns/op";
+        if (metrica.equals("cpu.ops.s")) return "ops/s-cpu";
+        if (metrica.startsWith("ctx.")) return "counts";
+        return "#/op";
+    }
+
+    // ========================================================================
+    // JSON E COMPARAÇÃO COM BASELINE
+    // ========================================================================
+
+    /**
+     * Um objeto por linha em "resultados", para que o baseline possa ser
+     * lido de volta sem biblioteca de JSON (ver lerBaseline)
+     */
+    static void escreverJson(List<Resumo> resumos, Path arquivo) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(arquivo), true, "UTF-8")) {
+            out.println("{");
+            out.printf(Locale.ROOT, "  \"jdk\": \"%s\", \"vm\": \"%s\", \"data\": \"%s\",%n",
+                       System.getProperty("java.version"), System.getProperty("java.vm.name"),
+                       java.time.LocalDateTime.now().withNano(0));
+            out.printf(Locale.ROOT, "  \"forks\": %d, \"warmup\": %d, \"iteracoes\": %d, "
+                       + "\"duracao_ms\": %d, \"ops_por_iteracao\": %d, \"secao_critica\": %d,%n",
+                       forks, warmupIteracoes, medicaoIteracoes, duracaoIteracaoMs,
+                       operacoesPorIteracao, Mecanismo.trabalhoSecaoCritica);
+            out.println("  \"resultados\": [");
+            for (int i = 0; i < resumos.size(); i++) {
+                Resumo r = resumos.get(i);
+                List<Double> total = r.total();
+                out.printf(Locale.ROOT, "    {\"mecanismo\": \"%s\", \"nome\": \"%s\", \"threads\": \"%s\", "
+                           + "\"throughput_ops_s\": %s, \"erro_ops_s\": %s, \"n\": %d, "
+                           + "\"p50_ns\": %s, \"p99_ns\": %s, \"p999_ns\": %s, \"p99_dispersao_ns\": %s, "
+                           + "\"amostras\": %d}%s%n",
+                           r.mecanismo.name(), r.mecanismo.nome, r.configuracao,
+                           numeroJson(media(total)), numeroJson(erro(total)), total.size(),
+                           percentilJson(r, 50), percentilJson(r, 99),
+                           percentilJson(r, 99.9),
+                           r.latencia.total() == 0 ? "null" : String.valueOf(r.dispersaoP99()),
+                           r.latencia.total(),
+                           i < resumos.size() - 1 ? "," : "");
+            }
+            out.println("  ]");
+            out.println("}");
+        }
+    }
+
+    /**
+     * null quando a latência não foi amostrada (sem -lat)
+     */
+    static String percentilJson(Resumo r, double p) {
+        return r.latencia.total() == 0 ? "null" : String.valueOf(r.latencia.percentil(p));
+    }
+
+    static String numeroJson(double v) {
+        return Double.isNaN(v) ? "null" : String.format(Locale.ROOT, "%.3f", v);
+    }
+
+    /**
+     * Campos de cada resultado do baseline, por "MECANISMO|threads"
+     */
+    static Map<String, Map<String, String>> lerBaseline(Path arquivo) throws IOException {
+        java.util.regex.Pattern campo =
+            java.util.regex.Pattern.compile("\"(\\w+)\":\\s*(\"([^\"]*)\"|[-0-9.eE]+|null)");
+        Map<String, Map<String, String>> baseline = new LinkedHashMap<>();
+        Map<String, String> cabecalho = new HashMap<>();
+        for (String linha : Files.readAllLines(arquivo)) {
+            Map<String, String> campos = new HashMap<>();
+            java.util.regex.Matcher m = campo.matcher(linha);
+            while (m.find()) {
+                campos.put(m.group(1), m.group(3) != null ? m.group(3) : m.group(2));
+            }
+            if (campos.containsKey("mecanismo")) {
+                baseline.put(campos.get("mecanismo") + "|" + campos.get("threads"), campos);
+            } else {
+                cabecalho.putAll(campos);
+            }
+        }
+        baseline.put("", cabecalho);
+        return baseline;
+    }
+
+    /**
+     * Variação de throughput e p99 contra o baseline. Throughput só é
+     * regressão se cair mais que o limiar e fora da soma dos dois erros
+     * (senão é ruído). p99 não tem intervalo: a piora precisa passar do
+     * limiar, da soma das dispersões entre forks (max - min do p99 de cada
+     * fork, nas duas execuções) e de PISO_P99_NS; senão é só um aviso.
+     * Retorna o número de regressões.
+     */
+    static int compararComBaseline(List<Resumo> resumos, Path arquivo) throws IOException {
+        Map<String, Map<String, String>> baseline = lerBaseline(arquivo);
+        Map<String, String> cabecalho = baseline.remove("");
+
+        System.out.println();
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  COMPARAÇÃO COM BASELINE                               ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("Baseline: %s (JDK %s, %s) | Atual: JDK %s | Limiar: %.1f%%%n",
+                          arquivo, cabecalho.getOrDefault("jdk", "?"), cabecalho.getOrDefault("data", "?"),
+                          System.getProperty("java.version"), limiarRegressao);
+        System.out.printf("%-24s %8s %14s %14s %8s %10s %10s %8s  %s%n", "Benchmark", "Threads",
+                          "Base ops/s", "Atual ops/s", "Δ", "Base p99", "Atual p99", "Δ", "Status");
+
+        int regressoes = 0;
+        for (Resumo r : resumos) {
+            Map<String, String> base = baseline.get(r.mecanismo.name() + "|" + r.configuracao);
+            List<Double> total = r.total();
+            double atual = media(total);
+            boolean comP99 = r.latencia.total() > 0;
+            long p99 = r.latencia.percentil(99);
+            String p99Atual = comP99 ? String.format("%,d", p99) : "-";
+            if (base == null || "null".equals(base.get("throughput_ops_s"))) {
+                System.out.printf("%-24s %8s %14s %,14.0f %8s %10s %10s %8s  %s%n", r.mecanismo.nome,
+                                  r.configuracao, "-", atual, "", "-", p99Atual, "", "novo");
+                continue;
+            }
+            double anterior = Double.parseDouble(base.get("throughput_ops_s"));
+            double erroAnterior = "null".equals(base.get("erro_ops_s")) ? 0 : Double.parseDouble(base.get("erro_ops_s"));
+            double erroAtual = Double.isNaN(erro(total)) ? 0 : erro(total);
+            String baseP99 = base.getOrDefault("p99_ns", "null");
+            long p99Anterior = "null".equals(baseP99) ? 0 : Long.parseLong(baseP99);
+            comP99 &= p99Anterior > 0;  // p99 só é comparado com -lat nas duas execuções
+            double deltaOps = 100 * (atual / anterior - 1);
+            double deltaP99 = comP99 ? 100 * ((double) p99 / p99Anterior - 1) : 0;
+            String baseDispersao = base.getOrDefault("p99_dispersao_ns", "null");
+            long ruidoP99 = Math.max(PISO_P99_NS, r.dispersaoP99()
+                + ("null".equals(baseDispersao) ? 0 : Long.parseLong(baseDispersao)));
+
+            List<String> status = new ArrayList<>();
+            if (deltaOps < -limiarRegressao) {
+                status.add(anterior - atual > erroAnterior + erroAtual
+                           ? "❌ REGRESSÃO throughput" : "⚠️  queda dentro do erro");
+            }
+            if (deltaP99 > limiarRegressao) {
+                status.add(p99 - p99Anterior > ruidoP99
+                           ? "❌ REGRESSÃO p99" : "⚠️  p99 dentro do ruído");
+            }
+            regressoes += (int) status.stream().filter(x -> x.startsWith("❌")).count();
+            if (status.isEmpty()) {
+                status.add(deltaOps > limiarRegressao ? "✅ melhora" : "✅");
+            }
+            System.out.printf("%-24s %8s %,14.0f %,14.0f %+7.1f%% %10s %10s %8s  %s%n",
+                              r.mecanismo.nome, r.configuracao, anterior, atual, deltaOps,
+                              p99Anterior > 0 ? String.format("%,d", p99Anterior) : "-", p99Atual,
+                              comP99 ? String.format("%+7.1f%%", deltaP99) : "-",
+                              String.join(", ", status));
+        }
+        System.out.println();
+        System.out.println(regressoes == 0 ? "✅ Nenhuma regressão acima do limiar"
+                                           : "❌ " + regressoes + " regressão(ões) acima do limiar (código de saída 2)");
+        return regressoes;
+    }
+
+    // ========================================================================
+    // LINHA DE COMANDO
+    // ========================================================================
+
+    static void lerOpcoes(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String valor = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "-f":
+                    forks = Integer.parseInt(valor); i++;
+                    break;
+                case "-wi":
+                    warmupIteracoes = Integer.parseInt(valor); i++;
+                    break;
+                case "-i":
+                    medicaoIteracoes = Integer.parseInt(valor); i++;
+                    break;
+                case "-r":
+                    duracaoIteracaoMs = Integer.parseInt(valor); i++;
+                    break;
+                case "-t":
+                case "-g":
+                    configuracoes.addAll(Arrays.asList(valor.split(","))); i++;
+                    break;
+                case "-m":
+                    mecanismos.clear();
+                    for (String nome : valor.split(",")) {
+                        mecanismos.add(Mecanismo.valueOf(nome.trim().toUpperCase()));
+                    }
+                    i++;
+                    break;
+                case "-prof":
+                    if (!valor.equals("gc") && !valor.equals("cpu") && !valor.equals("perfnorm")) {
+                        throw new IllegalArgumentException("Profiler desconhecido: " + valor);
+                    }
+                    profilers.add(valor); i++;
+                    break;
+                case "-cs":
+                    Mecanismo.trabalhoSecaoCritica = Integer.parseInt(valor); i++;
+                    break;
+                case "-jvmArgs":
+                    jvmArgs.addAll(Arrays.asList(valor.trim().split("\\s+"))); i++;
+                    break;
+                case "-ops":
+                    operacoesPorIteracao = Long.parseLong(valor); i++;
+                    break;
+                case "-lat":
+                    latencia = true;
+                    break;
+                case "-json":
+                    arquivoJson = valor; i++;
+                    break;
+                case "-baseline":
+                    arquivoBaseline = valor; i++;
+                    break;
+                case "-limiar":
+                    limiarRegressao = Double.parseDouble(valor); i++;
+                    break;
+                default:
+                    System.out.println("Uso: java BenchmarkSincronizacao [-f forks] [-wi warmup]"
+                                       + " [-i iteracoes] [-r ms | -ops n] [-t 1,2,4] [-g 3:1]"
+                                       + " [-m NOME,...] [-prof gc|cpu|perfnorm] [-jvmArgs \"...\"]"
+                                       + " [-cs passos] [-lat] [-json arquivo] [-baseline arquivo]"
+                                       + " [-limiar %]");
+                    System.out.println("Mecanismos: " + Arrays.toString(Mecanismo.values()));
+                    System.exit(args[i].equals("-h") ? 0 : 1);
+            }
+        }
+
+        if (configuracoes.isEmpty()) {
+            configuracoes.addAll(List.of("1", "2", "4", "8"));
+        }
+        if (profilers.contains("perfnorm") && !perfDisponivel()) {
+            System.out.println("⚠️  perf não encontrado no PATH: -prof perfnorm ignorado\n");
+            profilers.remove("perfnorm");
+        }
+    }
+
+    static boolean perfDisponivel() {
+        for (String dir : System.getenv().getOrDefault("PATH", "").split(File.pathSeparator)) {
+            if (Files.isExecutable(Paths.get(dir, "perf"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock CLH (Craig, Landin e Hagersten): fila implícita em que cada thread
+ * gira sobre o nó do PREDECESSOR. Cada liberação escreve apenas no próprio
+ * nó, então só o sucessor vê a linha de cache mudar (espera local).
+ *
+ * Cada aquisição aloca um nó novo. A versão clássica reaproveita o nó do
+ * predecessor ao liberar, mas com tryLock() isso é inseguro: tryLock() lê a
+ * cauda, vê o nó liberado e faz CAS nela. Se nesse intervalo outra thread
+ * entrar, sair e reentrar com o nó reaproveitado, ele volta a ser a cauda
+ * (agora bloqueado) e o CAS antigo passa (ABA): duas threads com o lock.
+ * Com nós novos, o GC garante que um nó observado nunca volta à cauda.
+ */
+public class ClhLock extends SpinLockBase {
+    
+    static final class No {
+        volatile boolean bloqueado;
+    }
+    
+    final AtomicReference<No> cauda = new AtomicReference<>(new No());
+    // Nó da aquisição em curso de cada thread
+    final ThreadLocal<No> meu = new ThreadLocal<>();
+    
+    @Override
+    public void lock() {
+        No no = new No();
+        no.bloqueado = true;
+        meu.set(no);
+        No predecessor = cauda.getAndSet(no);
+        int tentativa = 0;
+        while (predecessor.bloqueado) {
+            esperar(tentativa++);
+        }
+    }
+    
+    @Override
+    public boolean tryLock() {
+        // Livre se a cauda já foi liberada (ninguém na fila depois dela)
+        No atual = cauda.get();
+        if (atual.bloqueado) {
+            return false;
+        }
+        No no = new No();
+        no.bloqueado = true;
+        if (cauda.compareAndSet(atual, no)) {
+            meu.set(no);
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public void unlock() {
+        meu.get().bloqueado = false;
+    }
+}
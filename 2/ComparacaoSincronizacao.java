@@ -1,6 +1,11 @@
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 public class ComparacaoSincronizacao {
     
@@ -9,21 +14,128 @@ public class ComparacaoSincronizacao {
     static final int M = 250_000;    // Incrementos por thread
     static final int EXPECTED = T * M;
     
+    // Incrementos executados por cada tarefa (M, exceto no modo virtual,
+    // em que o mesmo total é dividido entre milhares de tarefas)
+    static int incrementosPorTarefa = M;
+    
+    // Modo virtual: cada tarefa roda em uma virtual thread própria
+    static boolean threadsVirtuais = false;
+    static final int TAREFAS_VIRTUAIS = 10_000;
+    
+    // Modo justiça: duração fixa por mecanismo
+    static final int DURACAO_JUSTICA_MS = 2000;
+    
+    // Modo soak: duração por mecanismo, aquecimento descartado da análise e
+    // queda entre o início e o fim considerada degradação
+    static final int DURACAO_SOAK_S = 10;
+    static final int AQUECIMENTO_SOAK_S = 2;
+    static final double LIMIAR_DERIVA = 0.10;
+    
+    // No modo sweep os testes rodam sem imprimir cabeçalhos e resultados
+    static boolean silencioso = false;
+    
+    // Opt-in: mede a latência de cada incrementar() (acquire → release),
+    // registrando 1 a cada intervaloLatencia operações
+    static boolean registrarLatencia = false;
+    static int intervaloLatencia = 1;
+    
+    /**
+     * Uso:
+     *   java ComparacaoSincronizacao                    (comparação com T = 8)
+     *   java ComparacaoSincronizacao --sweep [csv|json] [arquivo]
+     *   java ComparacaoSincronizacao --virtual [tarefas]
+     *   java ComparacaoSincronizacao --justica [duração ms]
+     *   java ComparacaoSincronizacao --soak [duração s] [MECANISMO,...]
+     *
+     *   --latencia[=N]      registra histograma de latência (1 amostra a cada N ops)
+     *   --secao-critica=N   N passos de trabalho dentro da seção crítica dos locks
+     *   --rastro[=arquivo]  grava os eventos de lock em arquivo binário (AnaliseRastro)
+     *   --jfr               emite os eventos JFR de EventosLock (gravar com
+     *                       -XX:StartFlightRecording)
+     */
     public static void main(String[] args) throws Exception {
+        List<String> opcoes = new ArrayList<>();
+        String arquivoRastro = null;
+        for (String arg : args) {
+            if (arg.startsWith("--rastro")) {
+                arquivoRastro = arg.startsWith("--rastro=")
+                    ? arg.substring("--rastro=".length()) : "locks.rastro";
+            } else if (arg.startsWith("--latencia")) {
+                registrarLatencia = true;
+                if (arg.startsWith("--latencia=")) {
+                    intervaloLatencia = Integer.parseInt(arg.substring("--latencia=".length()));
+                }
+            } else if (arg.equals("--jfr")) {
+                Mecanismo.eventosJfr = true;
+            } else if (arg.startsWith("--secao-critica=")) {
+                Mecanismo.trabalhoSecaoCritica =
+                    Integer.parseInt(arg.substring("--secao-critica=".length()));
+            } else {
+                opcoes.add(arg);
+            }
+        }
+        
+        if (arquivoRastro == null) {
+            executar(opcoes);
+            return;
+        }
+        Path arquivo = Path.of(arquivoRastro);
+        long descartados;
+        try (RastroLocks rastro = new RastroLocks(arquivo, RastroLocks.CAPACIDADE_PADRAO)) {
+            Mecanismo.rastro = rastro;
+            executar(opcoes);
+            descartados = rastro.eventosDescartados();
+        } finally {
+            Mecanismo.rastro = null;
+        }
+        System.out.printf("📼 Rastro: %s (%,.1f MB, %,d eventos descartados)%n",
+                          arquivo, Files.size(arquivo) / 1e6, descartados);
+        System.out.println("   Análise: java AnaliseRastro " + arquivo);
+    }
+    
+    /**
+     * Executa o modo escolhido (opções globais já aplicadas)
+     */
+    static void executar(List<String> opcoes) throws Exception {
+        if (!opcoes.isEmpty() && opcoes.get(0).equals("--virtual")) {
+            modoVirtual(opcoes.size() > 1 ? Integer.parseInt(opcoes.get(1)) : TAREFAS_VIRTUAIS);
+            return;
+        }
+        
+        if (!opcoes.isEmpty() && opcoes.get(0).equals("--justica")) {
+            modoJustica(opcoes.size() > 1 ? Integer.parseInt(opcoes.get(1)) : DURACAO_JUSTICA_MS);
+            return;
+        }
+        
+        if (!opcoes.isEmpty() && opcoes.get(0).equals("--soak")) {
+            modoSoak(opcoes.size() > 1 ? Integer.parseInt(opcoes.get(1)) : DURACAO_SOAK_S,
+                     opcoes.size() > 2 ? opcoes.get(2) : null);
+            return;
+        }
+        
+        if (!opcoes.isEmpty() && opcoes.get(0).equals("--sweep")) {
+            String formato = opcoes.size() > 1 ? opcoes.get(1) : "csv";
+            try (PrintStream saida = opcoes.size() > 2 ? new PrintStream(opcoes.get(2), "UTF-8")
+                                                       : new PrintStream(System.out, true)) {
+                sweep(formato, saida);
+            }
+            return;
+        }
+        
         System.out.println("╔════════════════════════════════════════════════════════╗");
         System.out.println("║  COMPARAÇÃO DE MECANISMOS DE SINCRONIZAÇÃO            ║");
         System.out.println("╚════════════════════════════════════════════════════════╝");
-        System.out.printf("Threads: %d | Incrementos/thread: %,d | Total: %,d%n%n", 
+        System.out.printf("Threads: %d | Incrementos/thread: %,d | Total: %,d%n",
                           T, M, EXPECTED);
+        System.out.printf("Trabalho na seção crítica: %d passos%n%n", Mecanismo.trabalhoSecaoCritica);
         
         // Executar cada teste
-        test1_SemSincronizacao();
-        test2_SemaphoreFair();
-        test3_SemaphoreUnfair();
-        test4_AtomicInteger();
-        test5_Synchronized();
-        test6_ReentrantLockFair();
-        test7_ReentrantLockUnfair();
+        int numero = 1;
+        List<Resultado> resultados = new ArrayList<>();
+        for (Mecanismo mecanismo : Mecanismo.values()) {
+            resultados.add(executarTeste(numero++, mecanismo, T));
+        }
+        printConsumo(resultados);
         
         // Resumo final
         System.out.println("\n╔════════════════════════════════════════════════════════╗");
@@ -33,51 +145,48 @@ public class ComparacaoSincronizacao {
         System.out.println("   → Correto, rápido (~19x mais que Semaphore), lock-free\n");
         System.out.println("📋 QUANDO USAR CADA UM:");
         System.out.println("   • AtomicInteger:     Operações atômicas simples");
+        System.out.println("   • LongAdder:         Contadores muito disputados, lidos raramente");
         System.out.println("   • synchronized:      Seções críticas pequenas e simples");
         System.out.println("   • ReentrantLock:     Necessita tryLock, interruptible, etc.");
         System.out.println("   • Semaphore:         Controlar pool de recursos (N > 1)");
+        System.out.println("   • MCS/CLH/Ticket:    FIFO sem park, só com threads <= núcleos");
         System.out.println("   • Sem sincronização: ❌ NUNCA em produção!\n");
     }
     
     // ========================================================================
-    // TESTE 1: SEM SINCRONIZAÇÃO (Race Condition)
+    // TESTE: UM MECANISMO COM N THREADS
     // ========================================================================
-    static void test1_SemSincronizacao() throws Exception {
-        System.out.println("─────────────────────────────────────────────────────────");
-        System.out.println("TEST 1: Sem Sincronização (Race Condition)");
-        System.out.println("─────────────────────────────────────────────────────────");
-        
-        int[] count = {0};  // Array para permitir modificação em lambda
-        
-        long time = runTest(() -> {
-            for (int i = 0; i < M; i++) {
-                count[0]++;  // RACE CONDITION!
-            }
-        });
-        
-        printResults("Sem Sincronização", count[0], time, false);
-    }
     
-    // ========================================================================
-    // TESTE 2: SEMAPHORE BINÁRIO (FAIR)
-    // ========================================================================
-    static void test2_SemaphoreFair() throws Exception {
-        System.out.println("─────────────────────────────────────────────────────────");
-        System.out.println("TEST 2: Semaphore(1, true) - Fair/FIFO");
-        System.out.println("─────────────────────────────────────────────────────────");
+    /**
+     * Executa o teste de incremento para um mecanismo.
+     *
+     * Todos os mecanismos passam pela mesma chamada contador.incrementar(),
+     * que fica megamórfica depois de alguns testes na mesma JVM. Isso pesa
+     * pouco frente ao custo dos locks, mas BenchmarkSincronizacao isola cada
+     * mecanismo em um fork quando a diferença importar.
+     */
+    static Resultado executarTeste(int numero, Mecanismo mecanismo, int threads) throws Exception {
+        if (!silencioso) {
+            System.out.println("─────────────────────────────────────────────────────────");
+            System.out.printf("TEST %d: %s%n", numero, mecanismo.descricao);
+            System.out.println("─────────────────────────────────────────────────────────");
+        }
         
-        int[] count = {0};
-        Semaphore sem = new Semaphore(1, true);
+        Contador contador = mecanismo.criar();
+        Queue<HistogramaLatencia> histogramas = new ConcurrentLinkedQueue<>();
+        Consumo consumo = new Consumo();
         
-        long time = runTest(() -> {
-            for (int i = 0; i < M; i++) {
+        long time = runTest(threads, consumo, () -> {
+            if (registrarLatencia) {
+                // Histograma por thread: sem contenção durante a medição
+                HistogramaLatencia h = new HistogramaLatencia();
+                incrementarComLatencia(contador, h);
+                histogramas.add(h);
+                return;
+            }
+            for (int i = 0; i < incrementosPorTarefa; i++) {
                 try {
-                    sem.acquire();
-                    try {
-                        count[0]++;
-                    } finally {
-                        sem.release();
-                    }
+                    contador.incrementar();
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     break;
@@ -85,129 +194,664 @@ public class ComparacaoSincronizacao {
             }
         });
         
-        printResults("Semaphore Fair", count[0], time, true);
+        Resultado r = printResults(mecanismo.nome, threads, contador.valor(), time,
+                                   mecanismo.deveSerCorreto, consumo);
+        if (registrarLatencia) {
+            r.latencia = new HistogramaLatencia();
+            for (HistogramaLatencia h : histogramas) {
+                r.latencia.mesclar(h);
+            }
+            if (!silencioso) {
+                printLatencia(r.latencia);
+            }
+        }
+        if (!silencioso && contador.detalhes() != null) {
+            System.out.println(contador.detalhes());
+        }
+        if (!silencioso && mecanismo.nota() != null) {
+            System.out.println(mecanismo.nota());
+        }
+        return r;
+    }
+    
+    /**
+     * Laço de incremento que cronometra 1 a cada intervaloLatencia operações.
+     * O tempo inclui a espera pelo lock, a seção crítica e a liberação.
+     */
+    static void incrementarComLatencia(Contador contador, HistogramaLatencia h) {
+        for (int i = 0; i < incrementosPorTarefa; i++) {
+            try {
+                if (i % intervaloLatencia == 0) {
+                    long t0 = System.nanoTime();
+                    contador.incrementar();
+                    h.registrar(System.nanoTime() - t0);
+                } else {
+                    contador.incrementar();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
     }
     
     // ========================================================================
-    // TESTE 3: SEMAPHORE BINÁRIO (UNFAIR)
+    // MODO SWEEP: ESCALABILIDADE POR NÚMERO DE THREADS
     // ========================================================================
-    static void test3_SemaphoreUnfair() throws Exception {
-        System.out.println("─────────────────────────────────────────────────────────");
-        System.out.println("TEST 3: Semaphore(1, false) - Unfair");
-        System.out.println("─────────────────────────────────────────────────────────");
-        
-        int[] count = {0};
-        Semaphore sem = new Semaphore(1, false);
+    
+    /**
+     * Executa todos os mecanismos com 1, 2, 4, ... até 2x o número de
+     * processadores (M incrementos por thread, ou seja, escalabilidade fraca)
+     * e emite uma tabela CSV ou JSON.
+     *
+     * Eficiência = throughput(T) / (T * throughput(1)): 1.0 é escalabilidade
+     * linear; valores que caem com T mostram o colapso por contenção.
+     */
+    static void sweep(String formato, PrintStream saida) throws Exception {
+        silencioso = true;
         
-        long time = runTest(() -> {
-            for (int i = 0; i < M; i++) {
-                try {
-                    sem.acquire();
-                    try {
-                        count[0]++;
-                    } finally {
-                        sem.release();
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+        List<Integer> contagens = contagensDeThreads(Runtime.getRuntime().availableProcessors());
+        List<Resultado> resultados = new ArrayList<>();
+        for (Mecanismo mecanismo : Mecanismo.values()) {
+            // Execução descartada para aquecer o JIT antes das medições
+            executarTeste(0, mecanismo, 1);
+            
+            double base = 0;
+            for (int threads : contagens) {
+                Resultado r = executarTeste(0, mecanismo, threads);
+                if (threads == 1) {
+                    base = r.throughput();
                 }
+                r.eficiencia = r.throughput() / (threads * base);
+                resultados.add(r);
+                System.err.printf("%-22s T=%-3d %,14.0f ops/s  eficiência %.2f%n",
+                                  r.nome, threads, r.throughput(), r.eficiencia);
             }
-        });
+        }
         
-        printResults("Semaphore Unfair", count[0], time, true);
+        if (formato.equals("json")) {
+            escreverJson(resultados, saida);
+        } else {
+            escreverCsv(resultados, saida);
+        }
+    }
+    
+    /**
+     * Potências de 2 até 2x processadores, incluindo o próprio 2x
+     */
+    static List<Integer> contagensDeThreads(int processadores) {
+        List<Integer> contagens = new ArrayList<>();
+        int limite = 2 * processadores;
+        for (int t = 1; t < limite; t *= 2) {
+            contagens.add(t);
+        }
+        contagens.add(limite);
+        return contagens;
+    }
+    
+    /**
+     * Valor formatado, ou "indisponivel" quando NaN (CPU e alocação de
+     * virtual threads): vazio no CSV, null no JSON, "n/d" no console
+     */
+    static String numero(String formato, double valor, String indisponivel) {
+        return Double.isNaN(valor) ? indisponivel : String.format(Locale.ROOT, formato, valor);
+    }
+    
+    static String nd(String formato, double valor) {
+        return Double.isNaN(valor) ? "n/d" : String.format(formato, valor);
+    }
+    
+    static void escreverCsv(List<Resultado> resultados, PrintStream saida) {
+        saida.println("mecanismo,threads,esperado,obtido,correto,tempo_s,"
+                      + "throughput_ops_s,throughput_por_thread_ops_s,eficiencia,"
+                      + "cpu_s,ops_por_cpu_s,bytes_por_op,gc_coletas,gc_ms,"
+                      + "trocas_voluntarias,trocas_involuntarias"
+                      + (registrarLatencia ? ",p50_ns,p99_ns,p999_ns,max_ns" : ""));
+        for (Resultado r : resultados) {
+            saida.printf(Locale.ROOT, "%s,%d,%d,%d,%b,%.6f,%.1f,%.1f,%.4f,%s,%s,%s,%d,%d,%d,%d",
+                         r.nome, r.threads, r.esperado, r.obtido, r.correto(),
+                         r.segundos(), r.throughput(), r.throughput() / r.threads,
+                         r.eficiencia, numero("%.6f", r.consumo.segundosCpu(), ""),
+                         numero("%.1f", r.opsPorSegundoCpu(), ""),
+                         numero("%.3f", r.bytesPorOp(), ""), r.consumo.gcColetas, r.consumo.gcMs,
+                         r.consumo.trocasVoluntarias(), r.consumo.trocasInvoluntarias());
+            if (r.latencia != null) {
+                saida.printf(",%d,%d,%d,%d", r.latencia.percentil(50), r.latencia.percentil(99),
+                             r.latencia.percentil(99.9), r.latencia.max());
+            }
+            saida.println();
+        }
+    }
+    
+    static void escreverJson(List<Resultado> resultados, PrintStream saida) {
+        saida.println("[");
+        for (int i = 0; i < resultados.size(); i++) {
+            Resultado r = resultados.get(i);
+            saida.printf(Locale.ROOT,
+                         "  {\"mecanismo\": \"%s\", \"threads\": %d, \"esperado\": %d, "
+                         + "\"obtido\": %d, \"correto\": %b, \"tempo_s\": %.6f, "
+                         + "\"throughput_ops_s\": %.1f, \"throughput_por_thread_ops_s\": %.1f, "
+                         + "\"eficiencia\": %.4f, \"cpu_s\": %s, \"ops_por_cpu_s\": %s, "
+                         + "\"bytes_por_op\": %s, \"gc_coletas\": %d, \"gc_ms\": %d, "
+                         + "\"trocas_voluntarias\": %d, \"trocas_involuntarias\": %d",
+                         r.nome, r.threads, r.esperado, r.obtido, r.correto(),
+                         r.segundos(), r.throughput(), r.throughput() / r.threads,
+                         r.eficiencia, numero("%.6f", r.consumo.segundosCpu(), "null"),
+                         numero("%.1f", r.opsPorSegundoCpu(), "null"),
+                         numero("%.3f", r.bytesPorOp(), "null"), r.consumo.gcColetas, r.consumo.gcMs,
+                         r.consumo.trocasVoluntarias(), r.consumo.trocasInvoluntarias());
+            if (r.latencia != null) {
+                saida.printf(", \"p50_ns\": %d, \"p99_ns\": %d, \"p999_ns\": %d, \"max_ns\": %d",
+                             r.latencia.percentil(50), r.latencia.percentil(99),
+                             r.latencia.percentil(99.9), r.latencia.max());
+            }
+            saida.println(i < resultados.size() - 1 ? "}," : "}");
+        }
+        saida.println("]");
     }
     
     // ========================================================================
-    // TESTE 4: ATOMICINTEGER (Recomendado)
+    // MODO VIRTUAL: MECANISMOS EM VIRTUAL THREADS
     // ========================================================================
-    static void test4_AtomicInteger() throws Exception {
-        System.out.println("─────────────────────────────────────────────────────────");
-        System.out.println("TEST 4: AtomicInteger (Lock-Free)");
-        System.out.println("─────────────────────────────────────────────────────────");
+    
+    /**
+     * Executa cada mecanismo com milhares de tarefas, uma virtual thread por
+     * tarefa, dividindo o mesmo total EXPECTED entre elas.
+     *
+     * Bloquear em Semaphore/ReentrantLock estaciona (park) só a virtual
+     * thread; bloquear segurando um monitor prende (pin) a carrier thread.
+     * Os pins são contados pelo evento JFR jdk.VirtualThreadPinned.
+     *
+     * Obs.: até o JDK 23, espera em monitorenter também prende a carrier mas
+     * não emite o evento (só park/wait dentro de synchronized emitem). A
+     * partir do JDK 24 (JEP 491) synchronized deixa de prender a carrier.
+     * Nessas versões as esperas em monitor de virtual threads são contadas
+     * à parte (jdk.JavaMonitorEnter) como prováveis pins.
+     */
+    static void modoVirtual(int tarefas) throws Exception {
+        threadsVirtuais = true;
+        incrementosPorTarefa = EXPECTED / tarefas;
+        
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  MECANISMOS EM VIRTUAL THREADS                         ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("Tarefas (virtual threads): %,d | Incrementos/tarefa: %,d | Total: %,d%n%n",
+                          tarefas, incrementosPorTarefa, (long) tarefas * incrementosPorTarefa);
         
-        AtomicInteger count = new AtomicInteger(0);
+        List<Resultado> resultados = new ArrayList<>();
+        List<long[]> pins = new ArrayList<>();
+        int numero = 1;
+        boolean monitorPrende = Runtime.version().feature() < 24;
         
-        long time = runTest(() -> {
-            for (int i = 0; i < M; i++) {
-                count.incrementAndGet();  // Operação atômica via CAS
+        for (Mecanismo mecanismo : Mecanismo.values()) {
+            // {eventos de pin, duração total em ns, esperas em monitor de virtual threads}
+            long[] pinados = new long[3];
+            
+            try (jdk.jfr.consumer.RecordingStream jfr = new jdk.jfr.consumer.RecordingStream()) {
+                jfr.enable("jdk.VirtualThreadPinned").withThreshold(java.time.Duration.ZERO);
+                jfr.onEvent("jdk.VirtualThreadPinned", evento -> {
+                    pinados[0]++;
+                    pinados[1] += evento.getDuration().toNanos();
+                });
+                if (monitorPrende) {
+                    jfr.enable("jdk.JavaMonitorEnter").withThreshold(java.time.Duration.ZERO);
+                    jfr.onEvent("jdk.JavaMonitorEnter", evento -> {
+                        if (evento.getThread() != null && evento.getThread().isVirtual()) {
+                            pinados[2]++;
+                        }
+                    });
+                }
+                jfr.startAsync();
+                
+                resultados.add(executarTeste(numero++, mecanismo, tarefas));
+                
+                // stop() só retorna depois de entregar todos os eventos gravados
+                jfr.stop();
             }
-        });
+            
+            System.out.printf("Pins de carrier: %,d eventos (%.3f ms presos)", pinados[0], pinados[1] / 1e6);
+            if (monitorPrende) {
+                System.out.printf(" + %,d esperas em monitor (prováveis pins, sem evento)", pinados[2]);
+            }
+            System.out.printf("%n%n");
+            pins.add(pinados);
+        }
         
-        printResults("AtomicInteger", count.get(), time, true);
-        System.out.println("💡 Usa Compare-And-Swap (CAS) - instruções atômicas de hardware");
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  RESUMO: VIRTUAL THREADS                               ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("%-22s %16s %12s %14s %10s%n", "Mecanismo", "Throughput", "Pins",
+                          monitorPrende ? "Esp. monitor" : "", "Correto");
+        for (int i = 0; i < resultados.size(); i++) {
+            Resultado r = resultados.get(i);
+            System.out.printf("%-22s %,12.0f/s %,12d %14s %10s%n",
+                              r.nome, r.throughput(), pins.get(i)[0],
+                              monitorPrende ? String.format("%,d", pins.get(i)[2]) : "",
+                              r.correto() ? "✅" : "❌");
+        }
+        System.out.println();
+        System.out.println("💡 Pins > 0: o mecanismo bloqueou a carrier thread (reduz o paralelismo");
+        System.out.println("   efetivo das virtual threads). Para ver as stacks, execute com");
+        System.out.println("   -Djdk.tracePinnedThreads=short.");
+        if (monitorPrende) {
+            System.out.printf("⚠️  JDK %d: esperar para entrar em synchronized também prende a carrier,%n",
+                              Runtime.version().feature());
+            System.out.println("   mas não gera jdk.VirtualThreadPinned: Pins = 0 não quer dizer que");
+            System.out.println("   synchronized é seguro. \"Esp. monitor\" conta essas esperas");
+            System.out.println("   (jdk.JavaMonitorEnter em virtual threads). No JDK 24+ (JEP 491)");
+            System.out.println("   o monitor não prende mais a carrier.");
+        }
     }
     
     // ========================================================================
-    // TESTE 5: SYNCHRONIZED
+    // MODO JUSTIÇA: PROGRESSO POR THREAD E STARVATION
     // ========================================================================
-    static void test5_Synchronized() throws Exception {
-        System.out.println("─────────────────────────────────────────────────────────");
-        System.out.println("TEST 5: synchronized block");
-        System.out.println("─────────────────────────────────────────────────────────");
-        
-        int[] count = {0};
-        Object lock = new Object();
-        
-        long time = runTest(() -> {
-            for (int i = 0; i < M; i++) {
-                synchronized (lock) {
-                    count[0]++;
+    
+    /**
+     * Executa cada mecanismo por uma duração fixa, em vez de M incrementos
+     * por thread: assim cada thread progride o quanto o mecanismo deixar, e a
+     * distribuição das operações entre as threads mede a justiça.
+     *
+     * Por thread: operações concluídas, maior espera contínua (a chamada de
+     * incrementar() mais longa) e histograma de espera. Por mecanismo: índice
+     * de Jain sobre as operações, (Σx)² / (n·Σx²), que vale 1 quando todas as
+     * threads progridem igual e 1/n quando uma só monopoliza o lock.
+     *
+     * Toda operação é cronometrada (nanoTime antes e depois), o que reduz o
+     * throughput absoluto de forma igual para todos os mecanismos.
+     */
+    static void modoJustica(int duracaoMs) throws Exception {
+        silencioso = true;
+        
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  JUSTIÇA E STARVATION POR MECANISMO                    ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("Threads: %d | Duração: %d ms por mecanismo | "
+                          + "Trabalho na seção crítica: %d passos%n%n",
+                          T, duracaoMs, Mecanismo.trabalhoSecaoCritica);
+        System.out.printf("%-22s %14s %8s %21s %9s %9s %10s %12s%n",
+                          "Mecanismo", "Throughput", "Jain", "Ops/thread min-max",
+                          "p50 ns", "p99 ns", "p99.9 ns", "Maior espera");
+        
+        Map<Mecanismo, double[]> resumo = new EnumMap<>(Mecanismo.class);  // {ops/s, Jain}
+        for (Mecanismo mecanismo : Mecanismo.values()) {
+            // Execução curta descartada para aquecer o JIT
+            executarJustica(mecanismo, T, duracaoMs / 4);
+            Justica j = executarJustica(mecanismo, T, duracaoMs);
+            
+            long min = Arrays.stream(j.operacoes).min().orElse(0);
+            long max = Arrays.stream(j.operacoes).max().orElse(0);
+            long maiorEspera = Arrays.stream(j.maiorEsperaNs).max().orElse(0);
+            System.out.printf("%-22s %,12.0f/s %8.4f %,10d-%,-10d %,9d %,9d %,10d %,9.2f ms%n",
+                              mecanismo.nome, j.throughput(), j.indiceJain(), min, max,
+                              j.espera.percentil(50), j.espera.percentil(99),
+                              j.espera.percentil(99.9), maiorEspera / 1e6);
+            resumo.put(mecanismo, new double[] {j.throughput(), j.indiceJain()});
+        }
+        
+        double[] justo = resumo.get(Mecanismo.SEMAPHORE_FAIR);
+        double[] injusto = resumo.get(Mecanismo.REENTRANT_LOCK_UNFAIR);
+        System.out.println();
+        System.out.printf("📊 Preço da justiça: Semaphore(1, true) entrega %.1f%% do throughput de%n",
+                          100 * justo[0] / injusto[0]);
+        System.out.printf("   ReentrantLock(false) (Jain %.4f vs %.4f)%n", justo[1], injusto[1]);
+        System.out.println();
+        System.out.println("💡 Locks injustos deixam a thread que acabou de liberar o lock pegá-lo");
+        System.out.println("   de novo (barging): mais throughput, mas algumas threads esperam muito");
+        System.out.println("   mais que outras. FIFO (fair, ticket, CLH, MCS) limita a maior espera.");
+        System.out.println("   Com mais threads que núcleos, a preempção do SO entra nas duas métricas:");
+        System.out.println("   o lock FIFO entregue a uma thread fora da CPU para todas as outras.");
+    }
+    
+    /**
+     * Progresso de cada thread em uma execução do modo justiça
+     */
+    static class Justica {
+        final long[] operacoes;
+        final long[] maiorEsperaNs;
+        final HistogramaLatencia espera = new HistogramaLatencia();
+        long nanos;
+        
+        Justica(int threads) {
+            operacoes = new long[threads];
+            maiorEsperaNs = new long[threads];
+        }
+        
+        double throughput() {
+            return Arrays.stream(operacoes).sum() / (nanos / 1e9);
+        }
+        
+        double indiceJain() {
+            double soma = 0;
+            double somaQuadrados = 0;
+            for (long x : operacoes) {
+                soma += x;
+                somaQuadrados += (double) x * x;
+            }
+            return somaQuadrados == 0 ? Double.NaN : soma * soma / (operacoes.length * somaQuadrados);
+        }
+    }
+    
+    /**
+     * Todas as threads começam juntas (latch) e param no mesmo prazo; cada
+     * uma acumula os próprios números e os publica ao terminar
+     */
+    static Justica executarJustica(Mecanismo mecanismo, int threads, int duracaoMs) throws Exception {
+        Contador contador = mecanismo.criar();
+        Justica j = new Justica(threads);
+        AtomicInteger proximo = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(threads);
+        
+        runTest(threads, () -> {
+            int id = proximo.getAndIncrement();
+            HistogramaLatencia h = new HistogramaLatencia();
+            long ops = 0;
+            long maior = 0;
+            try {
+                largada.countDown();
+                largada.await();
+                long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duracaoMs);
+                long agora = System.nanoTime();
+                while (agora - prazo < 0) {
+                    long t0 = agora;
+                    contador.incrementar();
+                    agora = System.nanoTime();
+                    long espera = agora - t0;
+                    h.registrar(espera);
+                    maior = Math.max(maior, espera);
+                    ops++;
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            j.operacoes[id] = ops;
+            j.maiorEsperaNs[id] = maior;
+            synchronized (j) {
+                j.espera.mesclar(h);
             }
         });
-        
-        printResults("synchronized", count[0], time, true);
+        // Todas as threads medem a mesma janela a partir da largada
+        j.nanos = TimeUnit.MILLISECONDS.toNanos(duracaoMs);
+        return j;
     }
     
     // ========================================================================
-    // TESTE 6: REENTRANTLOCK (FAIR)
+    // MODO SOAK: DURAÇÃO LONGA, THROUGHPUT POR SEGUNDO E DERIVA
     // ========================================================================
-    static void test6_ReentrantLockFair() throws Exception {
-        System.out.println("─────────────────────────────────────────────────────────");
-        System.out.println("TEST 6: ReentrantLock(true) - Fair");
-        System.out.println("─────────────────────────────────────────────────────────");
+    
+    // Cada trabalhador publica o progresso a cada PUBLICACAO_SOAK operações
+    static final int PUBLICACAO_SOAK = 256;
+    static volatile boolean soakAtivo;
+    
+    /**
+     * Executa cada mecanismo por uma duração fixa de relógio, em vez de T * M
+     * incrementos (que terminam em milissegundos para AtomicInteger), para
+     * chegar ao regime permanente e observar a evolução no tempo.
+     *
+     * Cada trabalhador conta os próprios incrementos em um long local e o
+     * publica no seu slot de progresso (lazySet, um slot a cada 128 bytes).
+     * Uma thread amostradora lê os slots a cada segundo e registra ops/s, o
+     * índice de Jain do segundo (contenção enviesada para algumas threads) e
+     * o GC do período. No fim, a soma das contagens locais é comparada com
+     * contador.valor().
+     *
+     * Deriva: descartado o aquecimento, compara a média do primeiro e do
+     * último terço da série e ajusta uma reta (tendência). Segundos
+     * abaixo de metade da mediana são listados como quedas, com o GC ao lado.
+     */
+    static void modoSoak(int duracaoS, String filtro) throws Exception {
+        List<Mecanismo> mecanismos = new ArrayList<>();
+        if (filtro == null) {
+            mecanismos.addAll(Arrays.asList(Mecanismo.values()));
+        } else {
+            for (String nome : filtro.split(",")) {
+                mecanismos.add(Mecanismo.valueOf(nome.trim()));
+            }
+        }
         
-        int[] count = {0};
-        ReentrantLock lock = new ReentrantLock(true);
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  SOAK: DURAÇÃO FIXA, THROUGHPUT POR SEGUNDO E DERIVA   ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("Threads: %d | Duração: %d s por mecanismo | Aquecimento: %d s | "
+                          + "Trabalho na seção crítica: %d passos%n%n",
+                          T, duracaoS, AQUECIMENTO_SOAK_S, Mecanismo.trabalhoSecaoCritica);
         
-        long time = runTest(() -> {
-            for (int i = 0; i < M; i++) {
-                lock.lock();
-                try {
-                    count[0]++;
-                } finally {
-                    lock.unlock();
-                }
+        List<Soak> resultados = new ArrayList<>();
+        for (Mecanismo mecanismo : mecanismos) {
+            System.out.println("─────────────────────────────────────────────────────────");
+            System.out.printf("SOAK: %s%n", mecanismo.descricao);
+            System.out.println("─────────────────────────────────────────────────────────");
+            System.out.printf("%6s %16s %8s %14s%n", "t (s)", "ops/s", "Jain", "GC n (ms)");
+            Soak s = executarSoak(mecanismo, T, duracaoS);
+            resultados.add(s);
+            
+            System.out.printf("Total: %,d ops (soma local) | Contador: %,d %s%n",
+                              s.somaLocal, s.valor, s.verificacao());
+            System.out.printf("Deriva: início %,.0f → fim %,.0f ops/s (%+.1f%%) | "
+                              + "tendência %+.1f%% | CV %.1f%% %s%n",
+                              s.mediaTerco(true), s.mediaTerco(false), 100 * s.variacao(),
+                              100 * s.tendencia(), 100 * s.coeficienteVariacao(),
+                              s.diagnostico());
+            for (double[] q : s.quedas()) {
+                System.out.printf("Queda: t=%.0f s %,.0f ops/s (GC %.0f, %.0f ms)%n",
+                                  q[0], q[1], q[3], q[4]);
             }
-        });
+            System.out.println();
+        }
         
-        printResults("ReentrantLock Fair", count[0], time, true);
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  RESUMO: SOAK                                          ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("%-22s %17s %14s %7s %9s %10s %9s %-16s %s%n", "Mecanismo", "Total ops",
+                          "Média ops/s", "CV", "Início→fim", "Tendência", "Jain mín",
+                          "Correto", "Deriva");
+        for (Soak s : resultados) {
+            System.out.printf("%-22s %,17d %,14.0f %6.1f%% %+8.1f%% %+9.1f%% %9.4f %-16s %s%n",
+                              s.nome, s.somaLocal, s.media(), 100 * s.coeficienteVariacao(),
+                              100 * s.variacao(), 100 * s.tendencia(), s.jainMinimo(),
+                              s.verificacao(), s.diagnostico());
+        }
+        System.out.println();
+        System.out.println("💡 Contagens locais em long não dependem do contador medido: o total");
+        System.out.println("   confere mesmo quando o mecanismo estoura (AtomicInteger passa de");
+        System.out.println("   2^31 em menos de um minuto) ou perde incrementos. Quedas com GC > 0 no");
+        System.out.println("   mesmo segundo apontam coleta; Jain baixo aponta threads favorecidas.");
     }
     
-    // ========================================================================
-    // TESTE 7: REENTRANTLOCK (UNFAIR)
-    // ========================================================================
-    static void test7_ReentrantLockUnfair() throws Exception {
-        System.out.println("─────────────────────────────────────────────────────────");
-        System.out.println("TEST 7: ReentrantLock(false) - Unfair");
-        System.out.println("─────────────────────────────────────────────────────────");
+    /**
+     * Série por segundo e contagens de uma execução do modo soak
+     */
+    static class Soak {
+        final String nome;
+        final boolean deveSerCorreto;
+        final List<double[]> segundos = new ArrayList<>();  // {t, ops/s, Jain, GCs, GC ms}
+        long somaLocal;
+        long valor;
+        
+        Soak(Mecanismo mecanismo) {
+            nome = mecanismo.nome;
+            deveSerCorreto = mecanismo.deveSerCorreto;
+        }
+        
+        String verificacao() {
+            if (valor == somaLocal) {
+                return "✅";
+            }
+            if ((int) valor == (int) somaLocal) {
+                return "❌ estouro int";
+            }
+            return String.format("❌ %.1f%% perdido", 100.0 * (somaLocal - valor) / somaLocal);
+        }
+        
+        /**
+         * Série sem o aquecimento (inteira se for curta demais para descartar)
+         */
+        List<double[]> estavel() {
+            return segundos.size() > AQUECIMENTO_SOAK_S + 2
+                ? segundos.subList(AQUECIMENTO_SOAK_S, segundos.size()) : segundos;
+        }
+        
+        double media() {
+            return estavel().stream().mapToDouble(s -> s[1]).average().orElse(Double.NaN);
+        }
+        
+        double mediaTerco(boolean inicio) {
+            List<double[]> serie = estavel();
+            int terco = Math.max(1, serie.size() / 3);
+            List<double[]> parte = inicio ? serie.subList(0, terco)
+                                          : serie.subList(serie.size() - terco, serie.size());
+            return parte.stream().mapToDouble(s -> s[1]).average().orElse(Double.NaN);
+        }
+        
+        /**
+         * Variação relativa do primeiro para o último terço
+         */
+        double variacao() {
+            return mediaTerco(false) / mediaTerco(true) - 1;
+        }
+        
+        /**
+         * Variação prevista pela reta de mínimos quadrados ao longo da série,
+         * relativa à média (menos sensível a um segundo isolado que os terços)
+         */
+        double tendencia() {
+            List<double[]> serie = estavel();
+            double mt = serie.stream().mapToDouble(s -> s[0]).average().orElse(0);
+            double my = media();
+            double cov = 0;
+            double var = 0;
+            for (double[] s : serie) {
+                cov += (s[0] - mt) * (s[1] - my);
+                var += (s[0] - mt) * (s[0] - mt);
+            }
+            double duracao = serie.isEmpty() ? 0 : serie.get(serie.size() - 1)[0] - serie.get(0)[0];
+            return var == 0 ? 0 : cov / var * duracao / my;
+        }
+        
+        double coeficienteVariacao() {
+            double my = media();
+            double var = estavel().stream().mapToDouble(s -> (s[1] - my) * (s[1] - my))
+                                  .average().orElse(0);
+            return Math.sqrt(var) / my;
+        }
+        
+        double jainMinimo() {
+            return estavel().stream().mapToDouble(s -> s[2]).min().orElse(Double.NaN);
+        }
+        
+        /**
+         * Segundos (após o aquecimento) abaixo de metade da mediana
+         */
+        List<double[]> quedas() {
+            double[] ordenados = estavel().stream().mapToDouble(s -> s[1]).sorted().toArray();
+            if (ordenados.length == 0) {
+                return List.of();
+            }
+            double mediana = ordenados[ordenados.length / 2];
+            return estavel().stream().filter(s -> s[1] < mediana / 2).toList();
+        }
         
-        int[] count = {0};
-        ReentrantLock lock = new ReentrantLock(false);
+        String diagnostico() {
+            // A queda precisa superar o limiar e o ruído entre segundos
+            if (variacao() < -Math.max(LIMIAR_DERIVA, 2 * coeficienteVariacao())) {
+                return "⚠️ degradação";
+            }
+            if (!quedas().isEmpty()) {
+                return "⚠️ quedas";
+            }
+            return "✅ estável";
+        }
+    }
+    
+    /**
+     * Trabalhadores em laço até soakAtivo cair; a thread amostradora define
+     * a duração e desliga o laço ao fim do último segundo
+     */
+    static Soak executarSoak(Mecanismo mecanismo, int threads, int duracaoS) throws Exception {
+        Contador contador = mecanismo.criar();
+        Soak s = new Soak(mecanismo);
+        // Slots separados por 128 bytes, como as células de ContadorListrado
+        AtomicLongArray progresso = new AtomicLongArray(threads * ContadorListrado.ESPACAMENTO);
+        long[] locais = new long[threads];
+        CountDownLatch largada = new CountDownLatch(threads + 1);
+        soakAtivo = true;
         
-        long time = runTest(() -> {
-            for (int i = 0; i < M; i++) {
-                lock.lock();
+        Thread[] trabalhadores = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            trabalhadores[t] = new Thread(() -> {
+                int slot = id * ContadorListrado.ESPACAMENTO;
+                long ops = 0;
                 try {
-                    count[0]++;
-                } finally {
-                    lock.unlock();
+                    largada.countDown();
+                    largada.await();
+                    while (true) {
+                        contador.incrementar();
+                        if ((++ops & (PUBLICACAO_SOAK - 1)) == 0) {
+                            progresso.lazySet(slot, ops);
+                            if (!soakAtivo) {
+                                break;
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 }
+                locais[id] = ops;  // visível ao chamador pelo join()
+            }, "Soak-" + t);
+            trabalhadores[t].start();
+        }
+        
+        Thread amostrador = new Thread(() -> {
+            try {
+                largada.countDown();
+                largada.await();
+            } catch (InterruptedException e) {
+                soakAtivo = false;
+                return;
             }
-        });
+            long inicio = System.nanoTime();
+            long anteriorNs = inicio;
+            long[] anterior = new long[threads];
+            long[] gcAnterior = Consumo.contadoresGc();
+            for (int seg = 1; seg <= duracaoS; seg++) {
+                long alvo = inicio + TimeUnit.SECONDS.toNanos(seg);
+                for (long falta; (falta = alvo - System.nanoTime()) > 0; ) {
+                    LockSupport.parkNanos(falta);
+                }
+                long agora = System.nanoTime();
+                double soma = 0;
+                double somaQuadrados = 0;
+                for (int i = 0; i < threads; i++) {
+                    long atual = progresso.get(i * ContadorListrado.ESPACAMENTO);
+                    double delta = atual - anterior[i];
+                    anterior[i] = atual;
+                    soma += delta;
+                    somaQuadrados += delta * delta;
+                }
+                long[] gc = Consumo.contadoresGc();
+                double[] amostra = {
+                    seg, soma / ((agora - anteriorNs) / 1e9),
+                    somaQuadrados == 0 ? Double.NaN : soma * soma / (threads * somaQuadrados),
+                    gc[0] - gcAnterior[0], gc[1] - gcAnterior[1]
+                };
+                anteriorNs = agora;
+                gcAnterior = gc;
+                s.segundos.add(amostra);
+                System.out.printf("%6d %,16.0f %8.4f %,6.0f (%,4.0f)%n",
+                                  seg, amostra[1], amostra[2], amostra[3], amostra[4]);
+            }
+            soakAtivo = false;
+        }, "Soak-amostrador");
+        amostrador.start();
         
-        printResults("ReentrantLock Unfair", count[0], time, true);
+        amostrador.join();
+        for (Thread t : trabalhadores) {
+            t.join();
+        }
+        s.somaLocal = Arrays.stream(locais).sum();
+        s.valor = contador.valor();
+        return s;
     }
     
     // ========================================================================
@@ -215,49 +859,172 @@ public class ComparacaoSincronizacao {
     // ========================================================================
     
     /**
-     * Executa um teste com T threads executando a task fornecida
+     * Executa um teste com N threads executando a task fornecida
+     * (no modo virtual, N tarefas em virtual threads)
+     *
+     * Medição única e "fria" (inclui criação do pool e JIT): serve para a
+     * demonstração. Para números confiáveis, use BenchmarkSincronizacao.
+     */
+    static long runTest(int threads, Runnable task) throws Exception {
+        return runTest(threads, null, task);
+    }
+    
+    /**
+     * Como runTest(threads, task), somando em consumo a CPU, a alocação e as
+     * trocas de contexto de cada thread e o GC do período (null = sem medir)
      */
-    static long runTest(Runnable task) throws Exception {
-        ExecutorService pool = Executors.newFixedThreadPool(T);
+    static long runTest(int threads, Consumo consumo, Runnable task) throws Exception {
+        ExecutorService pool = threadsVirtuais
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(threads);
+        Runnable tarefa = consumo == null ? task : consumo.medir(task);
+        if (consumo != null) {
+            consumo.iniciar();
+        }
         
         long startTime = System.nanoTime();
         
-        for (int i = 0; i < T; i++) {
-            pool.submit(task);
+        for (int i = 0; i < threads; i++) {
+            pool.submit(tarefa);
         }
         
         pool.shutdown();
         pool.awaitTermination(1, TimeUnit.MINUTES);
         
         long endTime = System.nanoTime();
+        if (consumo != null) {
+            consumo.encerrar();
+        }
         return endTime - startTime;
     }
     
     /**
-     * Exibe resultados formatados
+     * Resultado de um teste (uma execução com N threads)
      */
-    static void printResults(String name, int obtained, long nanoTime, boolean shouldBeCorrect) {
-        double seconds = nanoTime / 1_000_000_000.0;
-        double throughput = obtained / seconds;
-        boolean isCorrect = (obtained == EXPECTED);
+    static class Resultado {
+        final String nome;
+        final int threads;
+        final long esperado;
+        final long obtido;
+        final long nanos;
+        double eficiencia = Double.NaN;
+        HistogramaLatencia latencia;  // null se --latencia não foi usado
+        Consumo consumo;
+        
+        Resultado(String nome, int threads, long esperado, long obtido, long nanos) {
+            this.nome = nome;
+            this.threads = threads;
+            this.esperado = esperado;
+            this.obtido = obtido;
+            this.nanos = nanos;
+        }
+        
+        double segundos() {
+            return nanos / 1_000_000_000.0;
+        }
         
-        System.out.printf("Esperado:   %,10d%n", EXPECTED);
+        double throughput() {
+            return obtido / segundos();
+        }
+        
+        boolean correto() {
+            return obtido == esperado;
+        }
+        
+        /**
+         * Operações executadas: as esperadas, mesmo quando a corrida perde
+         * incrementos (o trabalho foi feito, só o resultado se perdeu)
+         */
+        double opsPorSegundoCpu() {
+            return consumo.opsPorSegundoCpu(esperado);
+        }
+        
+        double bytesPorOp() {
+            return consumo.bytesPorOp(esperado);
+        }
+    }
+    
+    /**
+     * Exibe resultados formatados (exceto no modo silencioso)
+     */
+    static Resultado printResults(String name, int threads, long obtained, long nanoTime,
+                                  boolean shouldBeCorrect, Consumo consumo) {
+        long expected = (long) threads * incrementosPorTarefa;
+        Resultado resultado = new Resultado(name, threads, expected, obtained, nanoTime);
+        resultado.consumo = consumo;
+        if (silencioso) {
+            return resultado;
+        }
+        
+        double seconds = resultado.segundos();
+        double throughput = resultado.throughput();
+        boolean isCorrect = resultado.correto();
+        
+        System.out.printf("Esperado:   %,10d%n", expected);
         System.out.printf("Obtido:     %,10d ", obtained);
         
         if (shouldBeCorrect) {
             System.out.println(isCorrect ? "✅" : "❌");
         } else {
-            double correctness = (obtained * 100.0) / EXPECTED;
+            double correctness = (obtained * 100.0) / expected;
             System.out.printf("(%.1f%% correto) ❌%n", correctness);
         }
         
         System.out.printf("Tempo:      %10.3f s%n", seconds);
         System.out.printf("Throughput: %,10.0f ops/s%n", throughput);
+        System.out.printf("CPU:        %s%n", Double.isNaN(consumo.segundosCpu()) ? "n/d"
+                          : String.format("%10.3f s (%,.0f ops por segundo de CPU)",
+                                          consumo.segundosCpu(), resultado.opsPorSegundoCpu()));
+        System.out.printf("Alocação:   %s | GC: %d coletas, %d ms%n",
+                          nd("%10.1f bytes/op", resultado.bytesPorOp()), consumo.gcColetas, consumo.gcMs);
+        if (consumo.trocasVoluntarias() >= 0) {
+            System.out.printf("Trocas:     %,10d voluntárias | %,d involuntárias%n",
+                              consumo.trocasVoluntarias(), consumo.trocasInvoluntarias());
+        }
         
         if (!isCorrect && shouldBeCorrect) {
             System.out.println("⚠️  AVISO: Resultado incorreto!");
         }
         
         System.out.println();
+        return resultado;
+    }
+    
+    /**
+     * Tabela de custo por mecanismo: throughput de parede lado a lado com a
+     * eficiência de CPU, a alocação e as trocas de contexto
+     */
+    static void printConsumo(List<Resultado> resultados) {
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  CUSTO DE CPU E ALOCAÇÃO POR MECANISMO                 ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("%-22s %14s %9s %15s %9s %10s %12s %12s%n", "Mecanismo", "Ops/s",
+                          "CPU (s)", "Ops/s de CPU", "Bytes/op", "GC n (ms)", "Trocas vol.",
+                          "Trocas inv.");
+        for (Resultado r : resultados) {
+            Consumo c = r.consumo;
+            System.out.printf("%-22s %,14.0f %9s %15s %9s %4d (%3d) %12s %12s%n",
+                              r.nome, r.throughput(), nd("%.3f", c.segundosCpu()),
+                              nd("%,.0f", r.opsPorSegundoCpu()), nd("%.2f", r.bytesPorOp()),
+                              c.gcColetas, c.gcMs,
+                              c.trocasVoluntarias() < 0 ? "n/d" : String.format("%,d", c.trocasVoluntarias()),
+                              c.trocasInvoluntarias() < 0 ? "n/d" : String.format("%,d", c.trocasInvoluntarias()));
+        }
+        System.out.println();
+        System.out.println("💡 CPU (s) perto de tempo × núcleos indica espera ativa: o giro queima");
+        System.out.println("   CPU sem progresso (e, com mais threads que núcleos, vira trocas");
+        System.out.println("   involuntárias); park aparece como trocas voluntárias. Em host");
+        System.out.println("   compartilhado, ops por segundo de CPU importa tanto quanto ops/s.");
+    }
+    
+    /**
+     * Exibe os percentis de latência por operação
+     */
+    static void printLatencia(HistogramaLatencia h) {
+        System.out.printf("Latência (%,d amostras, ns):%n", h.total());
+        System.out.printf("  média %,.0f | p50 %,d | p99 %,d | p99.9 %,d | max %,d%n",
+                          h.media(), h.percentil(50), h.percentil(99),
+                          h.percentil(99.9), h.max());
+        System.out.println();
     }
 }
@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contabilidade de CPU, alocação e trocas de contexto das threads de
+ * trabalho de um teste, mais o GC da JVM no mesmo período.
+ *
+ * O tempo de parede não distingue um mecanismo que gira na CPU esperando o
+ * lock de um que estaciona a thread: os dois levam o mesmo tempo, mas o
+ * primeiro consome CPU que outros processos do host poderiam usar. Por isso
+ * o relatório mostra ops por segundo de CPU e bytes por operação.
+ *
+ * Cada thread mede a si mesma (medir() envolve a tarefa): CPU e bytes pelo
+ * com.sun.management.ThreadMXBean, trocas de contexto voluntárias (park,
+ * espera) e involuntárias (preempção) por /proc/thread-self/status, quando o
+ * SO o expõe. Virtual threads não têm CPU nem trocas próprias, e no JDK 21
+ * getCurrentThreadAllocatedBytes() também devolve -1 nelas: nesse caso os
+ * campos ficam indisponíveis (NaN / -1) e o relatório mostra "n/d".
+ */
+public class Consumo {
+
+    static final com.sun.management.ThreadMXBean TMX =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    static final Path STATUS_THREAD = Path.of("/proc/thread-self/status");
+
+    final LongAdder cpuNanos = new LongAdder();
+    final LongAdder bytes = new LongAdder();
+    final LongAdder voluntarias = new LongAdder();
+    final LongAdder involuntarias = new LongAdder();
+    volatile boolean cpuIndisponivel;
+    volatile boolean bytesIndisponivel;
+    volatile boolean trocasIndisponiveis;
+    long[] gcInicio;
+    long gcColetas;
+    long gcMs;
+
+    /**
+     * Marca o início do período (GC é da JVM inteira, não por thread)
+     */
+    void iniciar() {
+        gcInicio = contadoresGc();
+    }
+
+    void encerrar() {
+        long[] gc = contadoresGc();
+        gcColetas = gc[0] - gcInicio[0];
+        gcMs = gc[1] - gcInicio[1];
+    }
+
+    /**
+     * Envolve a tarefa de uma thread de trabalho. /proc é lido fora da
+     * janela de alocação para não contar os bytes da própria leitura.
+     */
+    Runnable medir(Runnable tarefa) {
+        return () -> {
+            boolean virtual = Thread.currentThread().isVirtual();
+            long[] trocas0 = virtual ? null : trocasDeContexto(STATUS_THREAD);
+            long cpu0 = virtual ? -1 : TMX.getCurrentThreadCpuTime();
+            long bytes0 = TMX.getCurrentThreadAllocatedBytes();
+            try {
+                tarefa.run();
+            } finally {
+                long bytes1 = TMX.getCurrentThreadAllocatedBytes();
+                long cpu1 = virtual ? -1 : TMX.getCurrentThreadCpuTime();
+                long[] trocas1 = virtual ? null : trocasDeContexto(STATUS_THREAD);
+                if (bytes0 >= 0 && bytes1 >= 0) {
+                    bytes.add(bytes1 - bytes0);
+                } else {
+                    bytesIndisponivel = true;
+                }
+                if (cpu0 >= 0 && cpu1 >= 0) {
+                    cpuNanos.add(cpu1 - cpu0);
+                } else {
+                    cpuIndisponivel = true;
+                }
+                if (trocas0 != null && trocas1 != null) {
+                    voluntarias.add(trocas1[0] - trocas0[0]);
+                    involuntarias.add(trocas1[1] - trocas0[1]);
+                } else {
+                    trocasIndisponiveis = true;
+                }
+            }
+        };
+    }
+
+    double segundosCpu() {
+        return cpuIndisponivel ? Double.NaN : cpuNanos.sum() / 1e9;
+    }
+
+    double opsPorSegundoCpu(long ops) {
+        return ops / segundosCpu();
+    }
+
+    double bytesPorOp(long ops) {
+        return bytesIndisponivel ? Double.NaN : (double) bytes.sum() / Math.max(1, ops);
+    }
+
+    long trocasVoluntarias() {
+        return trocasIndisponiveis ? -1 : voluntarias.sum();
+    }
+
+    long trocasInvoluntarias() {
+        return trocasIndisponiveis ? -1 : involuntarias.sum();
+    }
+
+    /**
+     * {voluntárias, involuntárias} do status de uma thread em /proc, ou null
+     * se o arquivo não existir (fora do Linux)
+     */
+    static long[] trocasDeContexto(Path status) {
+        try {
+            long[] trocas = {-1, -1};
+            for (String linha : Files.readAllLines(status)) {
+                if (linha.startsWith("voluntary_ctxt_switches:")) {
+                    trocas[0] = Long.parseLong(linha.substring(linha.indexOf(':') + 1).trim());
+                } else if (linha.startsWith("nonvoluntary_ctxt_switches:")) {
+                    trocas[1] = Long.parseLong(linha.substring(linha.indexOf(':') + 1).trim());
+                }
+            }
+            return trocas[0] < 0 || trocas[1] < 0 ? null : trocas;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Caminho estável do status da thread atual (/proc/self/task/<tid>/status),
+     * para que outra thread leia as trocas desta; null fora do Linux
+     */
+    static Path statusDaThreadAtual() {
+        try {
+            return STATUS_THREAD.getParent().toRealPath().resolve("status");
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Retorna {coletas, tempo em ms} somados de todos os coletores
+     */
+    static long[] contadoresGc() {
+        long coletas = 0;
+        long tempo = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            coletas += Math.max(0, gc.getCollectionCount());
+            tempo += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {coletas, tempo};
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * Contador compartilhado entre threads: a "estratégia" de sincronização
+ * comparada em ComparacaoSincronizacao e BenchmarkSincronizacao.
+ *
+ * Cada Mecanismo cria uma instância nova por teste.
+ */
+public interface Contador {
+    
+    /**
+     * Incrementa o contador em 1 (operação medida)
+     */
+    void incrementar() throws InterruptedException;
+    
+    /**
+     * Valor atual; chamado na verificação final e pelos leitores do benchmark
+     */
+    long valor() throws InterruptedException;
+    
+    /**
+     * Estatísticas internas do mecanismo para exibir após o teste, ou null
+     */
+    default String detalhes() {
+        return null;
+    }
+}
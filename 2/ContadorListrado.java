@@ -0,0 +1,65 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador "listrado" (striped) escrito à mão, no estilo do Striped64 por
+ * trás de LongAdder.
+ *
+ * Em vez de todas as threads fazerem CAS na mesma linha de cache (como em
+ * AtomicInteger), cada thread incrementa uma célula escolhida pelo seu
+ * "probe". Quando o CAS falha (outra thread na mesma célula), o probe é
+ * re-sorteado e a thread migra para outra célula. A leitura soma as células.
+ */
+public class ContadorListrado implements Contador {
+    
+    // Células separadas por 128 bytes (16 longs): evita false sharing mesmo
+    // com prefetch de linhas adjacentes
+    static final int ESPACAMENTO = 16;
+    
+    // Probe por thread (equivalente ao threadLocalRandomProbe do JDK, que não
+    // é acessível fora de java.util.concurrent)
+    static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(
+        () -> new int[] {(int) (Thread.currentThread().threadId() * 0x9E3779B9L) | 1});
+    
+    final AtomicLongArray celulas;
+    final int mascara;
+    
+    public ContadorListrado() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * @param listras número desejado de células (arredondado para potência de 2)
+     */
+    public ContadorListrado(int listras) {
+        int n = Integer.highestOneBit(Math.max(2, listras) * 2 - 1);
+        celulas = new AtomicLongArray(n * ESPACAMENTO);
+        mascara = n - 1;
+    }
+    
+    @Override
+    public void incrementar() {
+        int[] probe = PROBE.get();
+        int h = probe[0];
+        while (true) {
+            int indice = (h & mascara) * ESPACAMENTO;
+            long atual = celulas.get(indice);
+            if (celulas.compareAndSet(indice, atual, atual + 1)) {
+                probe[0] = h;
+                return;
+            }
+            // Colisão: xorshift para sortear outra célula
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+        }
+    }
+    
+    @Override
+    public long valor() {
+        long soma = 0;
+        for (int i = 0; i <= mascara; i++) {
+            soma += celulas.get(i * ESPACAMENTO);
+        }
+        return soma;
+    }
+}
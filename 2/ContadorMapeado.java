@@ -0,0 +1,334 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contador em memória compartilhada entre processos: um arquivo mapeado
+ * (em /dev/shm quando existe, senão no diretório temporário) e incrementos
+ * com VarHandle.getAndAdd direto na memória mapeada (lock xadd no x86).
+ * Várias JVMs que mapeiam o mesmo arquivo enxergam as mesmas páginas.
+ *
+ * Layout (slots de 128 bytes, sem false sharing entre eles):
+ *   0 processos prontos | 128 largada | 256 contador único
+ *   384 + 128·p listra do processo p (layout listrado opcional)
+ *
+ * No layout listrado cada processo soma na própria listra e a leitura soma
+ * todas: a disputa entre processos some, fica só a das threads do processo.
+ *
+ * Como Mecanismo.CONTADOR_MAPEADO (uma JVM) o arquivo é apagado logo depois
+ * de mapeado. O main dispara N JVMs × T threads e confere o total, contra
+ * um contador protegido por FileChannel.lock e o AtomicInteger em heap.
+ *
+ * Uso: java ContadorMapeado [processos] [threads por processo]
+ *                           [ops por thread] [MODO,...]
+ *   modos: MAPEADO, MAPEADO_LISTRADO, FILE_LOCK, ATOMIC_INTEGER
+ */
+public class ContadorMapeado implements Contador {
+
+    static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    static final int ESPACAMENTO = 128;
+    static final int PRONTOS = 0;
+    static final int LARGADA = 128;
+    static final int UNICO = 256;
+    static final int LISTRAS = 384;
+
+    final MappedByteBuffer mapa;
+    final int offset;    // slot incrementado por este processo
+    final int listras;   // 0 = layout de contador único
+
+    /**
+     * @param listra  listra deste processo, ou -1 para o contador único
+     * @param listras total de listras somadas na leitura
+     */
+    ContadorMapeado(MappedByteBuffer mapa, int listra, int listras) {
+        this.mapa = mapa;
+        this.offset = listra < 0 ? UNICO : LISTRAS + listra * ESPACAMENTO;
+        this.listras = listra < 0 ? 0 : listras;
+    }
+
+    @Override
+    public void incrementar() {
+        LONGS.getAndAdd(mapa, offset, 1L);
+    }
+
+    @Override
+    public long valor() {
+        if (listras == 0) {
+            return (long) LONGS.getVolatile(mapa, UNICO);
+        }
+        long soma = 0;
+        for (int p = 0; p < listras; p++) {
+            soma += (long) LONGS.getVolatile(mapa, LISTRAS + p * ESPACAMENTO);
+        }
+        return soma;
+    }
+
+    /**
+     * Mapeia (criando, zerado) o arquivo com espaço para as listras
+     */
+    static MappedByteBuffer mapear(Path arquivo, int processos) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                                                  StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // O mapeamento continua válido depois de fechar o canal
+            return canal.map(FileChannel.MapMode.READ_WRITE, 0,
+                             LISTRAS + (long) processos * ESPACAMENTO);
+        }
+    }
+
+    /**
+     * /dev/shm (tmpfs: nunca vai para o disco) ou o diretório temporário
+     */
+    static Path diretorio() {
+        Path shm = Paths.get("/dev/shm");
+        return Files.isDirectory(shm) && Files.isWritable(shm)
+            ? shm : Paths.get(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Contador único de uma JVM só (Mecanismo): o arquivo é apagado logo
+     * depois de mapeado, as páginas ficam até o buffer ser coletado
+     */
+    static ContadorMapeado temporario() {
+        try {
+            Path arquivo = Files.createTempFile(diretorio(), "contador", ".map");
+            try {
+                return new ContadorMapeado(mapear(arquivo, 0), -1, 0);
+            } finally {
+                Files.deleteIfExists(arquivo);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Contador no mesmo slot, com exclusão por FileChannel.lock (fcntl).
+     * O lock de arquivo é do processo: duas threads da mesma JVM pedindo a
+     * mesma região geram OverlappingFileLockException, por isso um
+     * ReentrantLock serializa as threads locais antes.
+     */
+    static class ContadorFileLock implements Contador {
+        final FileChannel canal;
+        final MappedByteBuffer mapa;
+        final ReentrantLock local = new ReentrantLock();
+
+        ContadorFileLock(Path arquivo, MappedByteBuffer mapa) throws IOException {
+            this.canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.mapa = mapa;
+        }
+
+        @Override
+        public void incrementar() throws InterruptedException {
+            local.lock();
+            try {
+                FileLock trava = canal.lock(UNICO, Long.BYTES, false);
+                try {
+                    // Acesso simples: a exclusão vem do lock. Pelo VarHandle,
+                    // e não por getLong/putLong, que usam big-endian
+                    LONGS.set(mapa, UNICO, (long) LONGS.get(mapa, UNICO) + 1);
+                } finally {
+                    trava.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                local.unlock();
+            }
+        }
+
+        @Override
+        public long valor() {
+            return (long) LONGS.getVolatile(mapa, UNICO);
+        }
+    }
+
+    // ========================================================================
+    // LANÇADOR: N JVMs × T THREADS
+    // ========================================================================
+
+    static final String[] MODOS = {"MAPEADO", "MAPEADO_LISTRADO", "FILE_LOCK", "ATOMIC_INTEGER"};
+    static final long PRAZO_PARTIDA_S = 60;  // para todas as JVMs filhas ficarem prontas
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            filho(args[1], Paths.get(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+                  Integer.parseInt(args[5]), Integer.parseInt(args[6]));
+            return;
+        }
+        int processos = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int operacoes = args.length > 2 ? Integer.parseInt(args[2]) : 500_000;
+        String[] modos = args.length > 3 ? args[3].split(",") : MODOS;
+        for (String modo : modos) {
+            if (!List.of(MODOS).contains(modo)) {
+                throw new IllegalArgumentException("Modo desconhecido: " + modo
+                                                   + " (modos: " + String.join(", ", MODOS) + ")");
+            }
+        }
+        long esperado = (long) processos * threads * operacoes;
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     CONTADOR ENTRE PROCESSOS (MEMÓRIA MAPEADA)       ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Processos: %d | Threads por processo: %d | Ops por thread: %,d | "
+                          + "Total: %,d%n", processos, threads, operacoes, esperado);
+        System.out.printf("Arquivo em: %s%n%n", diretorio());
+
+        System.out.printf("%-18s %16s %16s %16s %8s%n", "Modo", "Ops/s (total)",
+                          "Ops/s/processo", "Obtido", "Correto");
+        for (String modo : modos) {
+            Path arquivo = Files.createTempFile(diretorio(), "contador", ".map");
+            try {
+                MappedByteBuffer mapa = mapear(arquivo, processos);
+                long[] r = executar(modo, arquivo, mapa, processos, threads, operacoes);
+                long obtido = switch (modo) {
+                    case "ATOMIC_INTEGER" -> r[1];  // um contador em heap por processo
+                    case "MAPEADO_LISTRADO" -> new ContadorMapeado(mapa, 0, processos).valor();
+                    default -> (long) LONGS.getVolatile(mapa, UNICO);
+                };
+                double throughput = esperado / (r[0] / 1e9);
+                System.out.printf("%-18s %,16.0f %,16.0f %,16d %8s%n", modo, throughput,
+                                  throughput / processos, obtido, obtido == esperado ? "✅" : "❌");
+            } finally {
+                Files.deleteIfExists(arquivo);
+            }
+        }
+        System.out.println();
+        System.out.println("💡 getAndAdd na memória mapeada é um lock xadd como o do AtomicInteger,");
+        System.out.println("   só que a linha de cache é disputada também entre processos; a listra");
+        System.out.println("   por processo tira essa disputa. FileChannel.lock custa duas chamadas");
+        System.out.println("   de sistema (fcntl) por incremento. ATOMIC_INTEGER não é compartilhado:");
+        System.out.println("   cada JVM conta o seu e o total é a soma dos relatados.");
+    }
+
+    /**
+     * Dispara os filhos, dá a largada quando todos estão prontos e retorna
+     * {maior tempo entre os filhos em ns, soma dos valores relatados}
+     */
+    static long[] executar(String modo, Path arquivo, MappedByteBuffer mapa, int processos,
+                           int threads, int operacoes) throws Exception {
+        List<Process> filhos = new ArrayList<>();
+        for (int p = 0; p < processos; p++) {
+            List<String> comando = List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), "ContadorMapeado", "--filho",
+                modo, arquivo.toString(), String.valueOf(p), String.valueOf(processos),
+                String.valueOf(threads), String.valueOf(operacoes));
+            filhos.add(new ProcessBuilder(comando).redirectErrorStream(true).start());
+        }
+
+        // Largada só depois que todas as JVMs subiram: a partida da JVM não
+        // entra no tempo medido. Um filho que morre antes de ficar pronto
+        // nunca incrementaria PRONTOS: aborta com a saída dele.
+        long prazo = System.nanoTime() + PRAZO_PARTIDA_S * 1_000_000_000L;
+        while ((long) LONGS.getVolatile(mapa, PRONTOS) < processos) {
+            for (Process filho : filhos) {
+                if (!filho.isAlive()) {
+                    System.out.print(new String(filho.getInputStream().readAllBytes()));
+                    abortar(filhos);
+                    throw new IllegalStateException("Processo filho terminou com código "
+                                                    + filho.exitValue() + " antes da largada");
+                }
+            }
+            if (System.nanoTime() - prazo >= 0) {
+                abortar(filhos);
+                throw new IllegalStateException("Processos filhos não ficaram prontos em "
+                                                + PRAZO_PARTIDA_S + " s");
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+        LONGS.setVolatile(mapa, LARGADA, 1L);
+
+        long maiorNanos = 0;
+        long soma = 0;
+        for (Process filho : filhos) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(filho.getInputStream()))) {
+                String linha;
+                while ((linha = in.readLine()) != null) {
+                    if (linha.startsWith("#RESULTADO ")) {
+                        String[] partes = linha.split(" ");
+                        maiorNanos = Math.max(maiorNanos, Long.parseLong(partes[1]));
+                        soma += Long.parseLong(partes[2]);
+                    } else {
+                        System.out.println(linha);
+                    }
+                }
+            }
+            if (filho.waitFor() != 0) {
+                throw new IllegalStateException("Processo filho terminou com código " + filho.exitValue());
+            }
+        }
+        return new long[] {maiorNanos, soma};
+    }
+
+    static void abortar(List<Process> filhos) throws InterruptedException {
+        for (Process filho : filhos) {
+            filho.destroyForcibly();
+        }
+        for (Process filho : filhos) {
+            filho.waitFor();
+        }
+    }
+
+    /**
+     * Um processo: T threads incrementando após a largada. Emite
+     * "#RESULTADO nanos valor" (valor = contador visto por este processo).
+     */
+    static void filho(String modo, Path arquivo, int indice, int processos, int threads,
+                      int operacoes) throws Exception {
+        MappedByteBuffer mapa = mapear(arquivo, processos);
+        Contador contador = switch (modo) {
+            case "MAPEADO" -> new ContadorMapeado(mapa, -1, 0);
+            case "MAPEADO_LISTRADO" -> new ContadorMapeado(mapa, indice, processos);
+            case "FILE_LOCK" -> new ContadorFileLock(arquivo, mapa);
+            case "ATOMIC_INTEGER" -> Mecanismo.ATOMIC_INTEGER.criar();
+            default -> throw new IllegalArgumentException("Modo desconhecido: " + modo);
+        };
+
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] ts = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            ts[t] = new Thread(() -> {
+                try {
+                    largada.await();
+                    for (int k = 0; k < operacoes; k++) {
+                        contador.incrementar();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            ts[t].start();
+        }
+
+        LONGS.getAndAdd(mapa, PRONTOS, 1L);
+        while ((long) LONGS.getVolatile(mapa, LARGADA) == 0) {
+            Thread.onSpinWait();
+        }
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Thread t : ts) {
+            t.join();
+        }
+        long nanos = System.nanoTime() - inicio;
+        System.out.println("#RESULTADO " + nanos + " " + contador.valor());
+    }
+}
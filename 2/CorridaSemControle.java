@@ -18,7 +18,11 @@ public class CorridaSemControle {
         System.out.println("=====================================\n");
         
         // Criar pool de threads
-        ExecutorService pool = Executors.newFixedThreadPool(T);
+        // (com "--virtual", cada tarefa roda em uma virtual thread própria)
+        boolean virtual = args.length > 0 && args[0].equals("--virtual");
+        ExecutorService pool = virtual
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(T);
         
         // Task que cada thread executará
         Runnable incrementTask = () -> {
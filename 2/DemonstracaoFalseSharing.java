@@ -0,0 +1,160 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Demonstração de false sharing com contadores por thread.
+ *
+ * Cada worker incrementa apenas o PRÓPRIO slot (não há dado compartilhado
+ * logicamente), mas com slots vizinhos na mesma linha de cache os núcleos
+ * disputam a linha como se houvesse. Com padding de 64/128 bytes cada slot
+ * ocupa uma linha exclusiva. No final, os slots são somados (merge).
+ *
+ * Uso: java DemonstracaoFalseSharing [threads] [incrementos por thread]
+ *
+ * Obs.: @Contended exige --add-exports na compilação e -XX:-RestrictContended
+ * na execução; aqui o mesmo efeito é obtido com padding manual de campos.
+ */
+public class DemonstracaoFalseSharing {
+
+    // Configuração padrão do experimento
+    static final int T = 8;
+    static final int M = 20_000_000;
+
+    // Escrita "opaca": garante um store por incremento sem impor barreiras.
+    // Com escrita comum o JIT manteria o valor em registrador e gravaria só
+    // no final, escondendo o false sharing.
+    static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Disposição dos contadores por thread na memória
+     */
+    enum Layout {
+        SEM_PADDING("long[] contíguo (8 bytes por slot)", 1),
+        PADDING_64("long[] com slot a cada 64 bytes", 8),
+        PADDING_128("long[] com slot a cada 128 bytes", 16),
+        PADDING_CAMPOS("objeto com campos de padding (estilo @Contended)", 0);
+
+        final String descricao;
+        final int espacamento;  // em longs; 0 = um objeto por thread
+
+        Layout(String descricao, int espacamento) {
+            this.descricao = descricao;
+            this.espacamento = espacamento;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : T;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : M;
+
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  DEMONSTRAÇÃO DE FALSE SHARING                         ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("Threads: %d | Incrementos/thread: %,d | Total: %,d%n%n",
+                          threads, m, (long) threads * m);
+
+        // Aquecimento: compila os laços antes das medições
+        for (Layout layout : Layout.values()) {
+            executar(layout, threads, m / 10);
+        }
+
+        double base = 0;
+        for (Layout layout : Layout.values()) {
+            System.out.println("─────────────────────────────────────────────────────────");
+            System.out.println(layout.name() + ": " + layout.descricao);
+            System.out.println("─────────────────────────────────────────────────────────");
+
+            long[] resultado = executar(layout, threads, m);
+            long total = resultado[0];
+            double seconds = resultado[1] / 1_000_000_000.0;
+            double throughput = total / seconds;
+            if (layout == Layout.SEM_PADDING) {
+                base = throughput;
+            }
+
+            System.out.printf("Soma (merge): %,d %s%n", total,
+                              total == (long) threads * m ? "✅" : "❌");
+            System.out.printf("Tempo:        %10.3f s%n", seconds);
+            System.out.printf("Throughput:   %,10.0f ops/s", throughput);
+            if (layout != Layout.SEM_PADDING) {
+                System.out.printf("  (%.1fx vs sem padding)", throughput / base);
+            }
+            System.out.println("\n");
+        }
+
+        System.out.println("💡 A diferença entre SEM_PADDING e os demais é o custo do false");
+        System.out.println("   sharing: a linha de cache \"pula\" entre núcleos a cada escrita.");
+        System.out.println("   Vale para qualquer array de estatísticas indexado por thread.");
+    }
+
+    /**
+     * Executa o experimento para um layout.
+     * Retorna {soma dos slots, tempo em ns}.
+     */
+    static long[] executar(Layout layout, int threads, int m) throws Exception {
+        AtomicInteger proximoId = new AtomicInteger();
+        long time;
+        long total = 0;
+
+        if (layout == Layout.PADDING_CAMPOS) {
+            CelulaPadded[] celulas = new CelulaPadded[threads];
+            for (int i = 0; i < threads; i++) {
+                celulas[i] = new CelulaPadded();
+            }
+            time = ComparacaoSincronizacao.runTest(threads, () -> {
+                CelulaPadded celula = celulas[proximoId.getAndIncrement()];
+                for (int i = 0; i < m; i++) {
+                    CelulaPadded.VALOR.setOpaque(celula, (long) CelulaPadded.VALOR.getOpaque(celula) + 1);
+                }
+            });
+            for (CelulaPadded celula : celulas) {
+                total += celula.valor;
+            }
+        } else {
+            // Slot i fica em (i + 1) * espacamento: o primeiro slot também
+            // fica longe do cabeçalho do array
+            int espacamento = layout.espacamento;
+            long[] slots = new long[(threads + 1) * espacamento];
+            time = ComparacaoSincronizacao.runTest(threads, () -> {
+                int indice = (proximoId.getAndIncrement() + 1) * espacamento;
+                for (int i = 0; i < m; i++) {
+                    SLOT.setOpaque(slots, indice, (long) SLOT.getOpaque(slots, indice) + 1);
+                }
+            });
+            // Merge: soma dos slots de cada thread
+            for (int i = 1; i <= threads; i++) {
+                total += slots[i * espacamento];
+            }
+        }
+
+        return new long[] {total, time};
+    }
+
+    // ========================================================================
+    // PADDING DE CAMPOS (herança garante a ordem: o JVM não mistura campos
+    // de classes diferentes da hierarquia)
+    // ========================================================================
+
+    static class PaddingAntes {
+        long p01, p02, p03, p04, p05, p06, p07, p08, p09, p10, p11, p12, p13, p14, p15;
+    }
+
+    static class CampoValor extends PaddingAntes {
+        long valor;
+    }
+
+    static class CelulaPadded extends CampoValor {
+        long q01, q02, q03, q04, q05, q06, q07, q08, q09, q10, q11, q12, q13, q14, q15;
+
+        static final VarHandle VALOR;
+
+        static {
+            try {
+                VALOR = MethodHandles.lookup().findVarHandle(CampoValor.class, "valor", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
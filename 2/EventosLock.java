@@ -0,0 +1,286 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Eventos do Java Flight Recorder para aquisição, espera e posse de locks,
+ * para correlacionar os mecanismos do projeto com o resto de uma gravação
+ * (GC, safepoints, jdk.JavaMonitorEnter, CPU) no JMC ou em "jfr print".
+ *
+ *   tde3.LockTentativa  instantâneo: a tentativa imediata falhou, a thread
+ *                       vai esperar (desligado por padrão: um por disputa)
+ *   tde3.LockAdquirido  duração = espera pelo lock; limiar padrão 1 ms
+ *   tde3.LockLiberado   duração = posse do lock; limiar padrão 1 ms
+ *
+ * Com o evento desligado, o custo é o teste de isEnabled(): nada é alocado
+ * e o relógio não é lido. Ligado, abaixo do limiar, custa a alocação, duas
+ * leituras de relógio por evento e o teste de shouldCommit(). O commit é
+ * feito depois de soltar o lock, fora da seção crítica.
+ *
+ * Ligados em Mecanismo com ComparacaoSincronizacao --jfr e nas demos de
+ * deadlock da parte 3 (mesmos eventos de espera e posse; lá o instantâneo
+ * é tde3.LockPedido, porque synchronized não tem tentativa imediata).
+ *
+ * Uso: java EventosLock [threads] [operações por thread] [MECANISMO]
+ *   (custo: sem eventos, JFR desligado, gravação com limiar, gravação completa)
+ */
+public final class EventosLock {
+
+    static final Duration LIMIAR_PADRAO = Duration.ofMillis(1);
+    static final AtomicInteger PROXIMO_ID = new AtomicInteger();
+
+    @Name("tde3.LockTentativa")
+    @Label("Lock: tentativa")
+    @Category({"TDE3", "Locks"})
+    @Description("A tentativa imediata falhou: a thread vai esperar pelo lock")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Tentativa extends Event {
+        @Label("Id do lock")
+        int lock;
+
+        @Label("Lock")
+        String nome;
+    }
+
+    @Name("tde3.LockAdquirido")
+    @Label("Lock: adquirido")
+    @Category({"TDE3", "Locks"})
+    @Description("Duração = espera pelo lock, da tentativa até a aquisição")
+    @Threshold("1 ms")
+    static final class Adquirido extends Event {
+        @Label("Id do lock")
+        int lock;
+
+        @Label("Lock")
+        String nome;
+    }
+
+    @Name("tde3.LockLiberado")
+    @Label("Lock: liberado")
+    @Category({"TDE3", "Locks"})
+    @Description("Duração = posse do lock, da aquisição até a liberação")
+    @Threshold("1 ms")
+    static final class Liberado extends Event {
+        @Label("Id do lock")
+        int lock;
+
+        @Label("Lock")
+        String nome;
+    }
+
+    private EventosLock() {
+    }
+
+    /**
+     * Id novo para os eventos de um lock (o nome pode se repetir)
+     */
+    static int registrarLock() {
+        return PROXIMO_ID.getAndIncrement();
+    }
+
+    // Instâncias nunca gravadas, só para consultar isEnabled() do tipo.
+    // Desligado, nenhum evento é alocado e o relógio não é lido (begin() e
+    // end() leem o relógio do JFR mesmo com o evento desligado).
+    static final Tentativa SONDA_TENTATIVA = new Tentativa();
+    static final Adquirido SONDA_ADQUIRIDO = new Adquirido();
+    static final Liberado SONDA_LIBERADO = new Liberado();
+
+    /**
+     * Início da espera (antes da tentativa), ou null se o evento está desligado
+     */
+    static Adquirido iniciarEspera() {
+        if (!SONDA_ADQUIRIDO.isEnabled()) {
+            return null;
+        }
+        Adquirido espera = new Adquirido();
+        espera.begin();
+        return espera;
+    }
+
+    /**
+     * Lock recém-adquirido: fim da espera e início da posse (ou null)
+     */
+    static Liberado adquirido(Adquirido espera) {
+        if (espera != null) {
+            espera.end();
+        }
+        if (!SONDA_LIBERADO.isEnabled()) {
+            return null;
+        }
+        Liberado posse = new Liberado();
+        posse.begin();
+        return posse;
+    }
+
+    /**
+     * Fim da posse, antes de soltar o lock
+     */
+    static void liberando(Liberado posse) {
+        if (posse != null) {
+            posse.end();
+        }
+    }
+
+    static void tentativa(int lock, String nome) {
+        if (!SONDA_TENTATIVA.isEnabled()) {
+            return;
+        }
+        Tentativa t = new Tentativa();
+        if (t.shouldCommit()) {
+            t.lock = lock;
+            t.nome = nome;
+            t.commit();
+        }
+    }
+
+    /**
+     * Grava espera e posse de uma aquisição, se passaram do limiar.
+     * Chamado depois de soltar o lock.
+     */
+    static void comitar(Adquirido espera, Liberado posse, int lock, String nome) {
+        if (espera != null && espera.shouldCommit()) {
+            espera.lock = lock;
+            espera.nome = nome;
+            espera.commit();
+        }
+        if (posse != null && posse.shouldCommit()) {
+            posse.lock = lock;
+            posse.nome = nome;
+            posse.commit();
+        }
+    }
+
+    // ========================================================================
+    // CUSTO: EVENTOS DESLIGADOS, COM LIMIAR E COMPLETOS
+    // ========================================================================
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Mecanismo mecanismo = args.length > 2 ? Mecanismo.valueOf(args[2])
+                                              : Mecanismo.REENTRANT_LOCK_UNFAIR;
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     EVENTOS JFR DE LOCK: CUSTO                       ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Mecanismo: %s | Threads: %d | Operações por thread: %,d%n%n",
+                          mecanismo.nome, threads, operacoes);
+
+        String[] nomes = {
+            "sem eventos", "eventos, JFR desligado",
+            "gravação, limiar " + LIMIAR_PADRAO.toMillis() + " ms", "gravação completa"
+        };
+        System.out.printf("   %-24s %10s %8s %12s%n", "", "ns/op", "Extra", "Eventos");
+        for (int rodada = 0; rodada < 2; rodada++) {  // 1ª rodada aquece o JIT
+            double[][] r = {
+                medir(mecanismo, false, null, threads, operacoes),
+                medir(mecanismo, true, null, threads, operacoes),
+                medir(mecanismo, true, LIMIAR_PADRAO, threads, operacoes),
+                medir(mecanismo, true, Duration.ZERO, threads, operacoes)
+            };
+            if (rodada == 1) {
+                for (int i = 0; i < r.length; i++) {
+                    System.out.printf("   %-24s %,10.1f %+7.0f%% %,12.0f%n", nomes[i], r[i][0],
+                                      100 * (r[i][0] / r[0][0] - 1), r[i][1]);
+                }
+            }
+        }
+        System.out.println();
+        System.out.println("💡 Desligado, o custo é um teste de flag. Com limiar, só as esperas e");
+        System.out.println("   posses lentas viram eventos, mas toda aquisição lê o relógio quatro");
+        System.out.println("   vezes: o extra acompanha o custo de System.nanoTime da máquina (alto");
+        System.out.println("   em VMs sem TSC estável). A gravação completa paga um commit com stack");
+        System.out.println("   trace por aquisição: só para janelas curtas de diagnóstico.");
+        System.out.println("   Em produção: java -XX:StartFlightRecording:filename=app.jfr ...");
+        System.out.println("   e jfr print --events tde3.LockAdquirido app.jfr");
+    }
+
+    /**
+     * Retorna {ns por operação, eventos gravados}.
+     *
+     * @param limiar null = sem gravação; senão o limiar de espera e posse
+     *               (Duration.ZERO grava tudo, inclusive as tentativas)
+     */
+    static double[] medir(Mecanismo mecanismo, boolean eventos, Duration limiar,
+                          int threads, int operacoes) throws Exception {
+        Mecanismo.eventosJfr = eventos;
+        Contador contador;
+        try {
+            contador = mecanismo.criar();
+        } finally {
+            Mecanismo.eventosJfr = false;
+        }
+
+        if (limiar == null) {
+            return new double[] {executar(contador, threads, operacoes), 0};
+        }
+        try (Recording gravacao = new Recording()) {
+            gravacao.enable(Adquirido.class).withThreshold(limiar);
+            gravacao.enable(Liberado.class).withThreshold(limiar);
+            if (limiar.isZero()) {
+                gravacao.enable(Tentativa.class);
+            } else {
+                gravacao.disable(Tentativa.class);
+            }
+            gravacao.start();
+            double ns = executar(contador, threads, operacoes);
+            gravacao.stop();
+
+            Path arquivo = Files.createTempFile("eventos-lock", ".jfr");
+            try {
+                gravacao.dump(arquivo);
+                return new double[] {ns, contarEventos(arquivo)};
+            } finally {
+                Files.deleteIfExists(arquivo);
+            }
+        }
+    }
+
+    static double executar(Contador contador, int threads, int operacoes) throws InterruptedException {
+        Thread[] ts = new Thread[threads];
+        long inicio = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            ts[t] = new Thread(() -> {
+                try {
+                    for (int k = 0; k < operacoes; k++) {
+                        contador.incrementar();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        return (System.nanoTime() - inicio) / ((double) threads * operacoes);
+    }
+
+    /**
+     * Lê o arquivo em fluxo (a gravação completa pode ter milhões de eventos)
+     */
+    static long contarEventos(Path arquivo) throws Exception {
+        long total = 0;
+        try (RecordingFile leitura = new RecordingFile(arquivo)) {
+            while (leitura.hasMoreEvents()) {
+                if (leitura.readEvent().getEventType().getName().startsWith("tde3.")) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Histograma log-linear de latências em nanossegundos (no estilo do
+ * HdrHistogram, sem dependências).
+ *
+ * Cada potência de 2 é dividida em 2^SUB_BITS sub-faixas lineares, o que dá
+ * erro relativo máximo de ~3% em qualquer escala, com um array fixo de
+ * contadores. registrar() não aloca e não sincroniza: cada thread usa o seu
+ * histograma e eles são mesclados no final.
+ */
+public class HistogramaLatencia {
+
+    static final int SUB_BITS = 5;
+    static final int SUB_FAIXAS = 1 << SUB_BITS;
+
+    // Valores < SUB_FAIXAS ficam em faixas exatas; cada potência de 2 acima
+    // disso ocupa mais SUB_FAIXAS posições (até 2^63)
+    static final int FAIXAS = SUB_FAIXAS * (64 - SUB_BITS + 1);
+
+    final long[] contagens = new long[FAIXAS];
+    long total;
+    long soma;
+    long max;
+
+    /**
+     * Registra uma latência (valores negativos contam como 0)
+     */
+    public void registrar(long nanos) {
+        long v = Math.max(0, nanos);
+        contagens[indice(v)]++;
+        total++;
+        soma += v;
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * Soma as contagens de outro histograma neste
+     */
+    public void mesclar(HistogramaLatencia outro) {
+        for (int i = 0; i < FAIXAS; i++) {
+            contagens[i] += outro.contagens[i];
+        }
+        total += outro.total;
+        soma += outro.soma;
+        max = Math.max(max, outro.max);
+    }
+
+    /**
+     * Valor do percentil p (0..100), pelo limite superior da faixa
+     */
+    public long percentil(double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = (long) Math.ceil(total * p / 100.0);
+        long acumulado = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= Math.max(1, alvo)) {
+                return Math.min(max, limiteSuperior(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Texto compacto "total soma max i:c,i:c,..." (só as faixas não vazias),
+     * para passar o histograma entre processos
+     */
+    public String serializar() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(total).append(' ').append(soma).append(' ').append(max).append(' ');
+        boolean primeiro = true;
+        for (int i = 0; i < FAIXAS; i++) {
+            if (contagens[i] != 0) {
+                sb.append(primeiro ? "" : ",").append(i).append(':').append(contagens[i]);
+                primeiro = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    public static HistogramaLatencia desserializar(String texto) {
+        String[] partes = texto.trim().split(" ");
+        HistogramaLatencia h = new HistogramaLatencia();
+        h.total = Long.parseLong(partes[0]);
+        h.soma = Long.parseLong(partes[1]);
+        h.max = Long.parseLong(partes[2]);
+        if (partes.length > 3) {
+            for (String faixa : partes[3].split(",")) {
+                int sep = faixa.indexOf(':');
+                h.contagens[Integer.parseInt(faixa.substring(0, sep))] = Long.parseLong(faixa.substring(sep + 1));
+            }
+        }
+        return h;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double media() {
+        return total == 0 ? 0 : (double) soma / total;
+    }
+
+    static int indice(long v) {
+        if (v < SUB_FAIXAS) {
+            return (int) v;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(v);   // >= SUB_BITS
+        int sub = (int) (v >>> (expoente - SUB_BITS)) & (SUB_FAIXAS - 1);
+        return (expoente - SUB_BITS + 1) * SUB_FAIXAS + sub;
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < SUB_FAIXAS) {
+            return indice;
+        }
+        int expoente = indice / SUB_FAIXAS + SUB_BITS - 1;
+        long sub = indice % SUB_FAIXAS;
+        long largura = 1L << (expoente - SUB_BITS);
+        return ((SUB_FAIXAS + sub) << (expoente - SUB_BITS)) + largura - 1;
+    }
+}
@@ -0,0 +1,266 @@
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Carga predominantemente de leitura sobre um registro de vários campos.
+ *
+ * Todos os testes de ComparacaoSincronizacao são 100% escrita. Aqui cada
+ * operação é uma leitura com probabilidade %leitura (padrão 95%) ou uma
+ * escrita. O registro tem três campos com o invariante b == 2a e c == 3a:
+ * um leitor que enxergar um estado "pela metade" detecta a violação.
+ *
+ * Uso: java LeituraPredominante [threads] [%leitura] [duração ms]
+ */
+public class LeituraPredominante {
+
+    // Configuração padrão do experimento
+    static final int T = 8;
+    static final int PERCENTUAL_LEITURA = 95;
+    static final int DURACAO_MS = 1000;
+
+    static volatile boolean emExecucao;
+
+    /**
+     * Registro compartilhado com três campos. ler() copia os campos para
+     * destino[0..2]; escrever(v) grava {v, 2v, 3v}.
+     */
+    interface Registro {
+        void ler(long[] destino);
+        void escrever(long v);
+
+        /**
+         * Leituras que precisaram de nova tentativa ou de fallback para lock
+         */
+        default long tentativasExtras() {
+            return 0;
+        }
+    }
+
+    enum Estrategia {
+        SYNCHRONIZED("synchronized", true) {
+            Registro criar() {
+                return new Registro() {
+                    long a, b, c;
+                    public synchronized void ler(long[] d) { d[0] = a; d[1] = b; d[2] = c; }
+                    public synchronized void escrever(long v) { a = v; b = 2 * v; c = 3 * v; }
+                };
+            }
+        },
+
+        READ_WRITE_LOCK("ReentrantReadWriteLock", true) {
+            Registro criar() {
+                ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+                return new Registro() {
+                    long a, b, c;
+
+                    public void ler(long[] d) {
+                        rw.readLock().lock();    // CAS no estado do lock
+                        try {
+                            d[0] = a; d[1] = b; d[2] = c;
+                        } finally {
+                            rw.readLock().unlock();
+                        }
+                    }
+
+                    public void escrever(long v) {
+                        rw.writeLock().lock();
+                        try {
+                            a = v; b = 2 * v; c = 3 * v;
+                        } finally {
+                            rw.writeLock().unlock();
+                        }
+                    }
+                };
+            }
+        },
+
+        STAMPED_OTIMISTA("StampedLock (tryOptimisticRead)", false) {
+            Registro criar() {
+                StampedLock sl = new StampedLock();
+                LongAdder fallbacks = new LongAdder();
+                return new Registro() {
+                    long a, b, c;
+
+                    public void ler(long[] d) {
+                        // Leitura otimista: só lê o estado do lock, não escreve
+                        long stamp = sl.tryOptimisticRead();
+                        d[0] = a; d[1] = b; d[2] = c;
+                        if (!sl.validate(stamp)) {
+                            // Houve escrita no meio: repete com read lock
+                            fallbacks.increment();
+                            stamp = sl.readLock();
+                            try {
+                                d[0] = a; d[1] = b; d[2] = c;
+                            } finally {
+                                sl.unlockRead(stamp);
+                            }
+                        }
+                    }
+
+                    public void escrever(long v) {
+                        long stamp = sl.writeLock();
+                        try {
+                            a = v; b = 2 * v; c = 3 * v;
+                        } finally {
+                            sl.unlockWrite(stamp);
+                        }
+                    }
+
+                    public long tentativasExtras() {
+                        return fallbacks.sum();
+                    }
+                };
+            }
+        },
+
+        COPY_ON_WRITE("Snapshot volatile (copy-on-write)", false) {
+            Registro criar() {
+                return new Registro() {
+                    // Cada escrita publica um snapshot novo e imutável
+                    volatile long[] snapshot = {0, 0, 0};
+
+                    public void ler(long[] d) {
+                        long[] s = snapshot;
+                        d[0] = s[0]; d[1] = s[1]; d[2] = s[2];
+                    }
+
+                    public void escrever(long v) {
+                        snapshot = new long[] {v, 2 * v, 3 * v};
+                    }
+                };
+            }
+        },
+
+        SEQLOCK("Seqlock", false) {
+            Registro criar() {
+                LongAdder repeticoes = new LongAdder();
+                return new Registro() {
+                    volatile long sequencia;   // ímpar = escrita em andamento
+                    long a, b, c;
+
+                    public void ler(long[] d) {
+                        while (true) {
+                            long s1 = sequencia;
+                            if ((s1 & 1) == 0) {
+                                d[0] = a; d[1] = b; d[2] = c;
+                                VarHandle.loadLoadFence();  // campos antes da 2ª leitura
+                                if (sequencia == s1) {
+                                    return;
+                                }
+                            }
+                            repeticoes.increment();
+                            Thread.onSpinWait();
+                        }
+                    }
+
+                    public synchronized void escrever(long v) {
+                        // Escritores se excluem pelo monitor; leitores nunca bloqueiam
+                        long s = sequencia;
+                        sequencia = s + 1;
+                        VarHandle.storeStoreFence();  // sequência ímpar antes dos campos
+                        a = v; b = 2 * v; c = 3 * v;
+                        sequencia = s + 2;            // escrita volatile publica os campos
+                    }
+
+                    public long tentativasExtras() {
+                        return repeticoes.sum();
+                    }
+                };
+            }
+        };
+
+        final String nome;
+        final boolean leitorEscreve;  // a leitura escreve em memória compartilhada?
+
+        Estrategia(String nome, boolean leitorEscreve) {
+            this.nome = nome;
+            this.leitorEscreve = leitorEscreve;
+        }
+
+        abstract Registro criar();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : T;
+        int percentualLeitura = args.length > 1 ? Integer.parseInt(args[1]) : PERCENTUAL_LEITURA;
+        int duracaoMs = args.length > 2 ? Integer.parseInt(args[2]) : DURACAO_MS;
+
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║  CARGA PREDOMINANTE DE LEITURA                         ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝");
+        System.out.printf("Threads: %d | Leituras: %d%% | Duração: %d ms por estratégia%n%n",
+                          threads, percentualLeitura, duracaoMs);
+
+        System.out.printf("%-34s %14s %14s %12s %10s %8s%n",
+                          "Estratégia", "Leituras/s", "Escritas/s", "Repetições",
+                          "Violações", "Leitor");
+        for (Estrategia estrategia : Estrategia.values()) {
+            // Aquecimento descartado antes da medição
+            executar(estrategia, threads, percentualLeitura, duracaoMs / 4);
+            long[] r = executar(estrategia, threads, percentualLeitura, duracaoMs);
+
+            double segundos = duracaoMs / 1000.0;
+            System.out.printf("%-34s %,14.0f %,14.0f %,12d %10s %8s%n",
+                              estrategia.nome, r[0] / segundos, r[1] / segundos, r[3],
+                              r[2] == 0 ? "0 ✅" : r[2] + " ❌",
+                              estrategia.leitorEscreve ? "escreve" : "só lê");
+        }
+
+        System.out.println();
+        System.out.println("💡 \"Leitor escreve\": o read lock faz CAS no estado do lock, levando a");
+        System.out.println("   linha de cache para o núcleo de cada leitor. Leituras otimistas,");
+        System.out.println("   seqlock e snapshot só leem, e a linha fica compartilhada entre os");
+        System.out.println("   núcleos. \"Repetições\" é o custo pago quando uma escrita interfere.");
+    }
+
+    /**
+     * Executa a carga por duracaoMs.
+     * Retorna {leituras, escritas, violações do invariante, repetições}.
+     */
+    static long[] executar(Estrategia estrategia, int threads, int percentualLeitura,
+                           int duracaoMs) throws InterruptedException {
+        Registro registro = estrategia.criar();
+        LongAdder leituras = new LongAdder();
+        LongAdder escritas = new LongAdder();
+        LongAdder violacoes = new LongAdder();
+
+        emExecucao = true;
+        Thread[] workers = new Thread[threads];
+        for (int w = 0; w < threads; w++) {
+            workers[w] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] lido = new long[3];
+                long l = 0;
+                long e = 0;
+                long v = 0;
+                while (emExecucao) {
+                    if (random.nextInt(100) < percentualLeitura) {
+                        registro.ler(lido);
+                        if (lido[1] != 2 * lido[0] || lido[2] != 3 * lido[0]) {
+                            violacoes.increment();
+                        }
+                        l++;
+                    } else {
+                        registro.escrever(++v);
+                        e++;
+                    }
+                }
+                leituras.add(l);
+                escritas.add(e);
+            });
+            workers[w].start();
+        }
+
+        Thread.sleep(duracaoMs);
+        emExecucao = false;
+        for (Thread w : workers) {
+            w.join();
+        }
+
+        return new long[] {leituras.sum(), escritas.sum(), violacoes.sum(),
+                           registro.tentativasExtras()};
+    }
+}
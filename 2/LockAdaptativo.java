@@ -0,0 +1,260 @@
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock adaptativo "gira e depois estaciona" (spin-then-park).
+ *
+ * Meio-termo entre o CAS puro de AtomicInteger e o Semaphore, que sempre
+ * estaciona a thread: quem encontra o lock ocupado primeiro gira com
+ * Thread.onSpinWait() e backoff exponencial limitado; só se o lock não for
+ * liberado dentro do orçamento de giro a thread entra na fila e faz park.
+ *
+ * O orçamento de giro acompanha o tempo de posse recente (média móvel
+ * amostrada): seções críticas curtas, como count++, são liberadas durante o
+ * giro e nunca pagam a troca de contexto; seções longas param de girar à toa.
+ *
+ * Não reentrante; unlock() deve ser chamado pela thread dona.
+ */
+public class LockAdaptativo implements Lock {
+
+    // Limites do orçamento de giro (ns). Acima de ~50 µs estacionar custa
+    // menos do que girar.
+    static final long GIRO_MIN_NS = 1_000;
+    static final long GIRO_MAX_NS = 50_000;
+
+    // Backoff exponencial entre tentativas de CAS: 1, 2, 4, ... onSpinWait()
+    static final int BACKOFF_MAX = 64;
+
+    // 1 a cada AMOSTRAGEM aquisições mede o tempo de posse (nanoTime custa
+    // mais do que um count++, então não é medido sempre)
+    static final int AMOSTRAGEM = 64;
+
+    final AtomicInteger estado = new AtomicInteger();  // 0 = livre, 1 = ocupado
+    final Queue<Thread> estacionadas = new ConcurrentLinkedQueue<>();
+
+    // Média móvel do tempo de posse (ns); escrita só pelo dono do lock
+    volatile long posseMediaNs = GIRO_MIN_NS;
+    long inicioPosse;
+    int aquisicoes;
+
+    // Contadores de como cada aquisição terminou
+    final LongAdder semEspera = new LongAdder();
+    final LongAdder porGiro = new LongAdder();
+    final LongAdder porPark = new LongAdder();
+
+    @Override
+    public void lock() {
+        if (!estado.compareAndSet(0, 1)) {
+            if (girar()) {
+                porGiro.increment();
+            } else {
+                estacionar();
+                porPark.increment();
+            }
+        } else {
+            semEspera.increment();
+        }
+        adquirido();
+    }
+
+    /**
+     * Fase de giro: test-and-test-and-set com backoff exponencial, até o
+     * orçamento derivado do tempo de posse recente
+     */
+    boolean girar() {
+        return girar(GIRO_MAX_NS);
+    }
+
+    /**
+     * Giro com o orçamento limitado também por limiteNs (prazo do tryLock)
+     */
+    boolean girar(long limiteNs) {
+        long orcamento = Math.min(Math.min(GIRO_MAX_NS, limiteNs),
+                                  Math.max(GIRO_MIN_NS, 2 * posseMediaNs));
+        long prazo = System.nanoTime() + orcamento;
+        int atraso = 1;
+        do {
+            for (int i = 0; i < atraso; i++) {
+                Thread.onSpinWait();
+            }
+            if (estado.get() == 0 && estado.compareAndSet(0, 1)) {
+                return true;
+            }
+            atraso = Math.min(atraso * 2, BACKOFF_MAX);
+        } while (System.nanoTime() - prazo < 0);
+        return false;
+    }
+
+    /**
+     * Fase de park: entra na fila ANTES da última tentativa, para que um
+     * unlock() concorrente sempre veja a thread e a acorde.
+     *
+     * Com a flag de interrupção ligada, park() retorna na hora: como no AQS,
+     * a flag é limpa a cada volta e restaurada depois da aquisição, senão a
+     * thread interrompida giraria na CPU até pegar o lock.
+     */
+    void estacionar() {
+        Thread atual = Thread.currentThread();
+        estacionadas.add(atual);
+        boolean interrompida = false;
+        while (!estado.compareAndSet(0, 1)) {
+            LockSupport.park(this);
+            interrompida |= Thread.interrupted();
+        }
+        estacionadas.remove(atual);
+        if (interrompida) {
+            atual.interrupt();
+        }
+    }
+
+    void adquirido() {
+        if (++aquisicoes % AMOSTRAGEM == 0) {
+            inicioPosse = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void unlock() {
+        if (aquisicoes % AMOSTRAGEM == 0) {
+            // Média móvel exponencial com peso 1/8 para a amostra nova
+            long posse = System.nanoTime() - inicioPosse;
+            posseMediaNs += (posse - posseMediaNs) >> 3;
+        }
+        estado.set(0);
+        Thread proxima = estacionadas.peek();
+        if (proxima != null) {
+            LockSupport.unpark(proxima);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (estado.get() == 0 && estado.compareAndSet(0, 1)) {
+            semEspera.increment();
+            adquirido();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gira e depois estaciona com timeout, respeitando interrupção. O giro
+     * não passa do timeout: com timeout 0 é uma única tentativa de CAS (quem
+     * mede a espera, como o rastro, conta com isso).
+     */
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (tryLock()) {
+            return true;
+        }
+        long limite = unit.toNanos(time);
+        if (limite <= 0) {
+            return false;
+        }
+        long prazo = System.nanoTime() + limite;
+        if (girar(limite)) {
+            porGiro.increment();
+            adquirido();
+            return true;
+        }
+
+        Thread atual = Thread.currentThread();
+        estacionadas.add(atual);
+        boolean adquiriu = false;
+        try {
+            while (!(adquiriu = estado.compareAndSet(0, 1))) {
+                long restante = prazo - System.nanoTime();
+                if (restante <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, restante);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            estacionadas.remove(atual);
+            if (!adquiriu) {
+                repassarAviso();
+            }
+        }
+        porPark.increment();
+        adquirido();
+        return true;
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (tryLock()) {
+            return;
+        }
+        if (girar()) {
+            porGiro.increment();
+            adquirido();
+            return;
+        }
+
+        Thread atual = Thread.currentThread();
+        estacionadas.add(atual);
+        boolean adquiriu = false;
+        try {
+            while (!(adquiriu = estado.compareAndSet(0, 1))) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            estacionadas.remove(atual);
+            if (!adquiriu) {
+                repassarAviso();
+            }
+        }
+        porPark.increment();
+        adquirido();
+    }
+
+    /**
+     * Quem desiste da fila (timeout/interrupção) pode ter consumido o unpark
+     * de um unlock(): repassa o aviso para a próxima thread estacionada
+     */
+    void repassarAviso() {
+        if (estado.get() == 0) {
+            Thread proxima = estacionadas.peek();
+            if (proxima != null) {
+                LockSupport.unpark(proxima);
+            }
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("LockAdaptativo não suporta Condition");
+    }
+
+    /**
+     * Resumo de como as aquisições terminaram (sem espera / giro / park)
+     */
+    public String estatisticas() {
+        long livre = semEspera.sum();
+        long giro = porGiro.sum();
+        long park = porPark.sum();
+        long total = Math.max(1, livre + giro + park);
+        return String.format("Aquisições: %.1f%% sem espera | %.1f%% no giro | %.1f%% com park"
+                             + " (posse média ~%,d ns)",
+                             livre * 100.0 / total, giro * 100.0 / total, park * 100.0 / total,
+                             posseMediaNs);
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock MCS (Mellor-Crummey e Scott): fila explícita em que cada thread gira
+ * sobre o PRÓPRIO nó e o antecessor avisa diretamente o sucessor ao liberar.
+ * Como o CLH, tem espera local e ordem FIFO; além disso cada thread gira em
+ * memória que ela mesma alocou (bom em máquinas NUMA).
+ */
+public class McsLock extends SpinLockBase {
+    
+    static final class No {
+        volatile No proximo;
+        volatile boolean bloqueado;
+    }
+    
+    final AtomicReference<No> cauda = new AtomicReference<>();
+    final ThreadLocal<No> local = ThreadLocal.withInitial(No::new);
+    
+    @Override
+    public void lock() {
+        No no = local.get();
+        no.proximo = null;
+        no.bloqueado = true;
+        No predecessor = cauda.getAndSet(no);
+        if (predecessor == null) {
+            return;  // fila vazia: lock adquirido
+        }
+        predecessor.proximo = no;
+        int tentativa = 0;
+        while (no.bloqueado) {
+            esperar(tentativa++);
+        }
+    }
+    
+    @Override
+    public boolean tryLock() {
+        No no = local.get();
+        no.proximo = null;
+        return cauda.compareAndSet(null, no);
+    }
+    
+    @Override
+    public void unlock() {
+        No no = local.get();
+        No sucessor = no.proximo;
+        if (sucessor == null) {
+            if (cauda.compareAndSet(no, null)) {
+                return;  // ninguém esperando
+            }
+            // Um sucessor já trocou a cauda mas ainda não se ligou a nós
+            int tentativa = 0;
+            while ((sucessor = no.proximo) == null) {
+                esperar(tentativa++);
+            }
+        }
+        sucessor.bloqueado = false;
+    }
+}
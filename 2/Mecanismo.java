@@ -0,0 +1,486 @@
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mecanismos de sincronização comparados no projeto.
+ *
+ * Para adicionar um mecanismo basta criar uma constante com a fábrica do
+ * Contador correspondente: ComparacaoSincronizacao (modo normal e sweep) e
+ * BenchmarkSincronizacao passam a executá-lo automaticamente.
+ *
+ * Os mecanismos baseados em lock executam, além do count++, um trabalho
+ * simulado de trabalhoSecaoCritica passos dentro da seção crítica (0 por
+ * padrão). Os contadores lock-free não têm seção crítica e o ignoram.
+ *
+ * Os contadores protegidos por lock são long: no modo soak o total passa de
+ * 2^31 em poucos segundos. AtomicInteger continua int de propósito (é o
+ * mecanismo comparado) e o soak aponta o estouro.
+ *
+ * Com rastro definido, os mecanismos baseados em lock gravam os eventos de
+ * tentativa, espera, aquisição e liberação em RastroLocks. Com eventosJfr,
+ * emitem os eventos JFR de EventosLock.
+ */
+public enum Mecanismo {
+
+    SEM_SINCRONIZACAO("Sem Sincronização", "Sem Sincronização (Race Condition)", false) {
+        Contador criar() {
+            return new Contador() {
+                long count = 0;
+                public void incrementar() { count++; }  // RACE CONDITION!
+                public long valor() { return count; }
+            };
+        }
+    },
+
+    SEMAPHORE_FAIR("Semaphore Fair", "Semaphore(1, true) - Fair/FIFO", true) {
+        Contador criar() { return comSemaphore(new Semaphore(1, true)); }
+    },
+
+    SEMAPHORE_UNFAIR("Semaphore Unfair", "Semaphore(1, false) - Unfair", true) {
+        Contador criar() { return comSemaphore(new Semaphore(1, false)); }
+    },
+
+    ATOMIC_INTEGER("AtomicInteger", "AtomicInteger (Lock-Free)", true) {
+        Contador criar() {
+            AtomicInteger count = new AtomicInteger(0);
+            return new Contador() {
+                public void incrementar() { count.incrementAndGet(); }  // CAS
+                public long valor() { return count.get(); }
+            };
+        }
+
+        String nota() {
+            return "💡 Usa Compare-And-Swap (CAS) - instruções atômicas de hardware";
+        }
+    },
+
+    SYNCHRONIZED("synchronized", "synchronized block", true) {
+        Contador criar() {
+            if (rastro != null) {
+                return comMonitorRastreado(rastro, rastro.registrarMonitor(nome));
+            }
+            if (eventosJfr) {
+                return comMonitorJfr(EventosLock.registrarLock(), nome);
+            }
+            return new Contador() {
+                long count = 0;
+                long residuo;
+
+                public synchronized void incrementar() {
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                }
+
+                public synchronized long valor() { return count; }
+            };
+        }
+    },
+
+    REENTRANT_LOCK_FAIR("ReentrantLock Fair", "ReentrantLock(true) - Fair", true) {
+        Contador criar() { return comLock(new ReentrantLock(true)); }
+    },
+
+    REENTRANT_LOCK_UNFAIR("ReentrantLock Unfair", "ReentrantLock(false) - Unfair", true) {
+        Contador criar() { return comLock(new ReentrantLock(false)); }
+    },
+
+    LONG_ADDER("LongAdder", "LongAdder (células por thread)", true) {
+        Contador criar() {
+            LongAdder count = new LongAdder();
+            return new Contador() {
+                public void incrementar() { count.increment(); }
+                public long valor() { return count.sum(); }
+            };
+        }
+
+        String nota() {
+            return "💡 Espalha a contenção em células; sum() percorre todas as células";
+        }
+    },
+
+    CONTADOR_LISTRADO("Contador Listrado", "Contador listrado manual (probe por thread)", true) {
+        Contador criar() { return new ContadorListrado(); }
+    },
+
+    LONG_ACCUMULATOR("LongAccumulator", "LongAccumulator(Long::sum, 0)", true) {
+        Contador criar() {
+            LongAccumulator count = new LongAccumulator(Long::sum, 0);
+            return new Contador() {
+                public void incrementar() { count.accumulate(1); }
+                public long valor() { return count.get(); }
+            };
+        }
+    },
+
+    CONTADOR_MAPEADO("Contador Mapeado", "Arquivo mapeado + VarHandle.getAndAdd (off-heap)", true) {
+        Contador criar() { return ContadorMapeado.temporario(); }
+    },
+
+    TICKET_LOCK("Ticket Lock", "TicketLock - FIFO, giro em variável global", true) {
+        Contador criar() { return comLock(new TicketLock()); }
+    },
+
+    CLH_LOCK("CLH Lock", "ClhLock - FIFO, giro no nó do predecessor", true) {
+        Contador criar() { return comLock(new ClhLock()); }
+    },
+
+    MCS_LOCK("MCS Lock", "McsLock - FIFO, giro no próprio nó", true) {
+        Contador criar() { return comLock(new McsLock()); }
+    },
+
+    LOCK_ADAPTATIVO("Lock Adaptativo", "LockAdaptativo - giro com backoff, depois park", true) {
+        Contador criar() { return comLock(new LockAdaptativo()); }
+    };
+
+    // Passos de trabalho simulado dentro da seção crítica dos locks.
+    // Definido antes de iniciar as threads (visível via Thread.start()).
+    static int trabalhoSecaoCritica = 0;
+
+    // Gravador de eventos de lock (--rastro), null = desligado.
+    // Também definido antes de criar os contadores.
+    static RastroLocks rastro;
+
+    // Emite os eventos JFR de EventosLock (--jfr). Sem gravação ativa o
+    // custo é quase nulo; com rastro definido, o rastro tem precedência.
+    static boolean eventosJfr;
+
+    final String nome;
+    final String descricao;
+    final boolean deveSerCorreto;
+
+    Mecanismo(String nome, String descricao, boolean deveSerCorreto) {
+        this.nome = nome;
+        this.descricao = descricao;
+        this.deveSerCorreto = deveSerCorreto;
+    }
+
+    /**
+     * Cria um contador novo (zerado) protegido por este mecanismo
+     */
+    abstract Contador criar();
+
+    /**
+     * Observação exibida após o resultado, ou null
+     */
+    String nota() {
+        return null;
+    }
+
+    /**
+     * Trabalho simulado da seção crítica: um gerador congruencial linear, que
+     * o JIT não consegue eliminar porque o resultado é guardado no contador
+     */
+    static long simularTrabalho(long x) {
+        for (int i = 0; i < trabalhoSecaoCritica; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+
+    // ========================================================================
+    // ADAPTADORES
+    // ========================================================================
+
+    /**
+     * Contador protegido por um semáforo binário
+     */
+    Contador comSemaphore(Semaphore sem) {
+        if (rastro != null) {
+            return comSemaphoreRastreado(sem, rastro, rastro.registrarLock(nome));
+        }
+        if (eventosJfr) {
+            return comSemaphoreJfr(sem, EventosLock.registrarLock(), nome);
+        }
+        return new Contador() {
+            long count = 0;
+            long residuo;
+
+            public void incrementar() throws InterruptedException {
+                sem.acquire();
+                try {
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                } finally {
+                    sem.release();
+                }
+            }
+
+            public long valor() throws InterruptedException {
+                sem.acquire();
+                try {
+                    return count;
+                } finally {
+                    sem.release();
+                }
+            }
+        };
+    }
+
+    /**
+     * Contador protegido por qualquer Lock
+     */
+    Contador comLock(Lock lock) {
+        if (rastro != null) {
+            return comLockRastreado(lock, rastro, rastro.registrarLock(nome));
+        }
+        if (eventosJfr) {
+            return comLockJfr(lock, EventosLock.registrarLock(), nome);
+        }
+        return new Contador() {
+            long count = 0;
+            long residuo;
+
+            public void incrementar() {
+                lock.lock();
+                try {
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            public long valor() {
+                lock.lock();
+                try {
+                    return count;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            public String detalhes() {
+                return Mecanismo.detalhes(lock);
+            }
+        };
+    }
+
+    /**
+     * Estatísticas próprias do lock (spin/park do LockAdaptativo), ou null
+     */
+    static String detalhes(Lock lock) {
+        return lock instanceof LockAdaptativo ? ((LockAdaptativo) lock).estatisticas() : null;
+    }
+
+    // ========================================================================
+    // ADAPTADORES RASTREADOS (--rastro)
+    // ========================================================================
+    //
+    // A tentativa imediata usa as variantes com prazo zero, que respeitam a
+    // fila dos modos fair (tryLock() e tryAcquire() sem prazo furam a fila).
+    // Se ela consegue, só ADQUIRIDO é gravado, com o instante da tentativa.
+    // LIBERADO é gravado antes de soltar: o próximo ADQUIRIDO é sempre
+    // posterior no tempo.
+
+    static Contador comSemaphoreRastreado(Semaphore sem, RastroLocks r, int id) {
+        return new Contador() {
+            long count = 0;
+            long residuo;
+
+            public void incrementar() throws InterruptedException {
+                long t0 = System.nanoTime();
+                if (sem.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                    r.evento(id, RastroLocks.ADQUIRIDO, t0);
+                } else {
+                    r.evento(id, RastroLocks.TENTATIVA, t0);
+                    r.evento(id, RastroLocks.ESTACIONADO);
+                    sem.acquire();
+                    r.evento(id, RastroLocks.ADQUIRIDO);
+                }
+                try {
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                } finally {
+                    r.evento(id, RastroLocks.LIBERADO);
+                    sem.release();
+                }
+            }
+
+            public long valor() throws InterruptedException {
+                sem.acquire();
+                try {
+                    return count;
+                } finally {
+                    sem.release();
+                }
+            }
+        };
+    }
+
+    static Contador comLockRastreado(Lock lock, RastroLocks r, int id) {
+        return new Contador() {
+            long count = 0;
+            long residuo;
+
+            public void incrementar() throws InterruptedException {
+                long t0 = System.nanoTime();
+                if (lock.tryLock(0, TimeUnit.NANOSECONDS)) {
+                    r.evento(id, RastroLocks.ADQUIRIDO, t0);
+                } else {
+                    r.evento(id, RastroLocks.TENTATIVA, t0);
+                    r.evento(id, RastroLocks.ESTACIONADO);
+                    lock.lock();
+                    r.evento(id, RastroLocks.ADQUIRIDO);
+                }
+                try {
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                } finally {
+                    r.evento(id, RastroLocks.LIBERADO);
+                    lock.unlock();
+                }
+            }
+
+            public long valor() {
+                lock.lock();
+                try {
+                    return count;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            public String detalhes() {
+                return Mecanismo.detalhes(lock);
+            }
+        };
+    }
+
+    /**
+     * Monitor: não há tentativa imediata sem bloquear, então não dá para
+     * saber se a thread esperou. Grava só ADQUIRIDO com o instante de antes
+     * de entrar, como a aquisição imediata dos outros adaptadores; a análise
+     * marca a espera do monitor como desconhecida (fica somada à posse).
+     */
+    static Contador comMonitorRastreado(RastroLocks r, int id) {
+        return new Contador() {
+            long count = 0;
+            long residuo;
+
+            public void incrementar() {
+                long t0 = System.nanoTime();
+                synchronized (this) {
+                    r.evento(id, RastroLocks.ADQUIRIDO, t0);
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                    r.evento(id, RastroLocks.LIBERADO);
+                }
+            }
+
+            public synchronized long valor() {
+                return count;
+            }
+        };
+    }
+
+    // ========================================================================
+    // ADAPTADORES COM EVENTOS JFR (--jfr)
+    // ========================================================================
+    //
+    // Mesma tentativa imediata dos adaptadores rastreados: Tentativa só é
+    // emitido quando a thread vai esperar. A espera vai da tentativa até a
+    // aquisição e a posse até antes de soltar; os commits ficam para depois
+    // da liberação.
+
+    static Contador comSemaphoreJfr(Semaphore sem, int id, String nomeLock) {
+        return new Contador() {
+            long count = 0;
+            long residuo;
+
+            public void incrementar() throws InterruptedException {
+                EventosLock.Adquirido espera = EventosLock.iniciarEspera();
+                if (!sem.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                    EventosLock.tentativa(id, nomeLock);
+                    sem.acquire();
+                }
+                EventosLock.Liberado posse = EventosLock.adquirido(espera);
+                try {
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                } finally {
+                    EventosLock.liberando(posse);
+                    sem.release();
+                }
+                EventosLock.comitar(espera, posse, id, nomeLock);
+            }
+
+            public long valor() throws InterruptedException {
+                sem.acquire();
+                try {
+                    return count;
+                } finally {
+                    sem.release();
+                }
+            }
+        };
+    }
+
+    static Contador comLockJfr(Lock lock, int id, String nomeLock) {
+        return new Contador() {
+            long count = 0;
+            long residuo;
+
+            public void incrementar() throws InterruptedException {
+                EventosLock.Adquirido espera = EventosLock.iniciarEspera();
+                if (!lock.tryLock(0, TimeUnit.NANOSECONDS)) {
+                    EventosLock.tentativa(id, nomeLock);
+                    lock.lock();
+                }
+                EventosLock.Liberado posse = EventosLock.adquirido(espera);
+                try {
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                } finally {
+                    EventosLock.liberando(posse);
+                    lock.unlock();
+                }
+                EventosLock.comitar(espera, posse, id, nomeLock);
+            }
+
+            public long valor() {
+                lock.lock();
+                try {
+                    return count;
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            public String detalhes() {
+                return Mecanismo.detalhes(lock);
+            }
+        };
+    }
+
+    /**
+     * Monitor: sem tentativa imediata, então nunca emite Tentativa (o JDK já
+     * tem jdk.JavaMonitorEnter para esperas em synchronized)
+     */
+    static Contador comMonitorJfr(int id, String nomeLock) {
+        return new Contador() {
+            long count = 0;
+            long residuo;
+
+            public void incrementar() {
+                EventosLock.Adquirido espera = EventosLock.iniciarEspera();
+                EventosLock.Liberado posse;
+                synchronized (this) {
+                    posse = EventosLock.adquirido(espera);
+                    count++;
+                    residuo = simularTrabalho(residuo);
+                    EventosLock.liberando(posse);
+                }
+                EventosLock.comitar(espera, posse, id, nomeLock);
+            }
+
+            public synchronized long valor() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,697 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Perfil de contenção por lock: versões instrumentadas de Semaphore,
+ * ReentrantLock e de um monitor (synchronized), para usar no lugar das
+ * originais e descobrir quais locks são os "quentes".
+ *
+ * Por lock (agregado por nome): aquisições, aquisições disputadas, espera
+ * total e máxima, posse total e máxima e tamanho da fila na aquisição.
+ * Os contadores são LongAdder e LongAccumulator (células por thread), para
+ * que medir não crie um novo ponto de contenção. A aquisição imediata não
+ * lê o relógio para a espera: só a posse custa dois nanoTime.
+ *
+ * Leitura: MBeans em "tde3.locks:type=Lock,name=..." (jconsole, jmc),
+ * instantaneos() e relatorio(), que entrega a diferença de cada período.
+ *
+ * Uso: java PerfilLocks [threads] [operações por thread]
+ */
+public final class PerfilLocks {
+
+    static final String DOMINIO = "tde3.locks";
+
+    /**
+     * Atributos expostos por JMX para cada lock
+     */
+    public interface EstatisticasMXBean {
+        String getNome();
+        long getAquisicoes();
+        long getDisputadas();
+        long getEsperaTotalNs();
+        long getEsperaMaxNs();
+        long getPosseTotalNs();
+        long getPosseMaxNs();
+        double getFilaMedia();
+        long getFilaMax();
+        void zerar();
+    }
+
+    /**
+     * Contadores listrados de um nome de lock
+     */
+    static final class Estatisticas implements EstatisticasMXBean {
+        final String nome;
+        final LongAdder aquisicoes = new LongAdder();
+        final LongAdder disputadas = new LongAdder();
+        final LongAdder esperaTotal = new LongAdder();
+        final LongAccumulator esperaMax = new LongAccumulator(Math::max, 0);
+        final LongAdder posseTotal = new LongAdder();
+        final LongAccumulator posseMax = new LongAccumulator(Math::max, 0);
+        final LongAdder filaTotal = new LongAdder();
+        final LongAccumulator filaMax = new LongAccumulator(Math::max, 0);
+
+        Estatisticas(String nome) {
+            this.nome = nome;
+        }
+
+        void imediata() {
+            aquisicoes.increment();
+        }
+
+        /**
+         * @param fila threads já enfileiradas quando esta precisou esperar
+         */
+        void disputada(long esperaNs, int fila) {
+            aquisicoes.increment();
+            disputadas.increment();
+            esperaTotal.add(esperaNs);
+            esperaMax.accumulate(esperaNs);
+            filaTotal.add(fila);
+            filaMax.accumulate(fila);
+        }
+
+        void posse(long ns) {
+            posseTotal.add(ns);
+            posseMax.accumulate(ns);
+        }
+
+        public String getNome() { return nome; }
+        public long getAquisicoes() { return aquisicoes.sum(); }
+        public long getDisputadas() { return disputadas.sum(); }
+        public long getEsperaTotalNs() { return esperaTotal.sum(); }
+        public long getEsperaMaxNs() { return esperaMax.get(); }
+        public long getPosseTotalNs() { return posseTotal.sum(); }
+        public long getPosseMaxNs() { return posseMax.get(); }
+        public long getFilaMax() { return filaMax.get(); }
+
+        public double getFilaMedia() {
+            long n = disputadas.sum();
+            return n == 0 ? 0 : (double) filaTotal.sum() / n;
+        }
+
+        public void zerar() {
+            for (LongAdder a : List.of(aquisicoes, disputadas, esperaTotal, posseTotal, filaTotal)) {
+                a.reset();
+            }
+            for (LongAccumulator a : List.of(esperaMax, posseMax, filaMax)) {
+                a.reset();
+            }
+        }
+    }
+
+    /**
+     * Cópia dos contadores em um instante. Os máximos são desde o início
+     * (ou o último zerar()); os demais campos podem ser subtraídos.
+     */
+    static final class Instantaneo {
+        final String nome;
+        final long aquisicoes;
+        final long disputadas;
+        final long esperaTotalNs;
+        final long esperaMaxNs;
+        final long posseTotalNs;
+        final long posseMaxNs;
+        final long filaTotal;
+        final long filaMax;
+
+        Instantaneo(String nome, long aquisicoes, long disputadas, long esperaTotalNs,
+                    long esperaMaxNs, long posseTotalNs, long posseMaxNs, long filaTotal, long filaMax) {
+            this.nome = nome;
+            this.aquisicoes = aquisicoes;
+            this.disputadas = disputadas;
+            this.esperaTotalNs = esperaTotalNs;
+            this.esperaMaxNs = esperaMaxNs;
+            this.posseTotalNs = posseTotalNs;
+            this.posseMaxNs = posseMaxNs;
+            this.filaTotal = filaTotal;
+            this.filaMax = filaMax;
+        }
+
+        Instantaneo(Estatisticas e) {
+            this(e.nome, e.aquisicoes.sum(), e.disputadas.sum(), e.esperaTotal.sum(), e.esperaMax.get(),
+                 e.posseTotal.sum(), e.posseMax.get(), e.filaTotal.sum(), e.filaMax.get());
+        }
+
+        /**
+         * O que aconteceu entre anterior e este instante
+         */
+        Instantaneo menos(Instantaneo anterior) {
+            if (anterior == null) {
+                return this;
+            }
+            return new Instantaneo(nome, aquisicoes - anterior.aquisicoes,
+                                   disputadas - anterior.disputadas,
+                                   esperaTotalNs - anterior.esperaTotalNs, esperaMaxNs,
+                                   posseTotalNs - anterior.posseTotalNs, posseMaxNs,
+                                   filaTotal - anterior.filaTotal, filaMax);
+        }
+
+        double percentualDisputadas() {
+            return aquisicoes == 0 ? 0 : 100.0 * disputadas / aquisicoes;
+        }
+
+        double esperaMediaNs() {
+            return disputadas == 0 ? 0 : (double) esperaTotalNs / disputadas;
+        }
+
+        double posseMediaNs() {
+            return aquisicoes == 0 ? 0 : (double) posseTotalNs / aquisicoes;
+        }
+
+        double filaMedia() {
+            return disputadas == 0 ? 0 : (double) filaTotal / disputadas;
+        }
+    }
+
+    // ========================================================================
+    // REGISTRO E LEITURA
+    // ========================================================================
+
+    static final Map<String, Estatisticas> REGISTRO = new ConcurrentHashMap<>();
+
+    /**
+     * Estatísticas do nome, criadas e registradas no MBeanServer na primeira
+     * vez. Locks com o mesmo nome (ex.: um por conta) somam nos mesmos
+     * contadores.
+     */
+    static Estatisticas estatisticas(String nome) {
+        return REGISTRO.computeIfAbsent(nome, n -> {
+            Estatisticas e = new Estatisticas(n);
+            try {
+                MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+                servidor.registerMBean(new StandardMBean(e, EstatisticasMXBean.class, true), objectName(n));
+            } catch (Exception ex) {
+                System.err.println("⚠️  MBean não registrado para " + n + ": " + ex);
+            }
+            return e;
+        });
+    }
+
+    static ObjectName objectName(String nome) throws Exception {
+        return new ObjectName(DOMINIO + ":type=Lock,name=" + ObjectName.quote(nome));
+    }
+
+    /**
+     * Instantâneo de todos os locks, do que mais esperou para o que menos esperou
+     */
+    static List<Instantaneo> instantaneos() {
+        List<Instantaneo> lista = new ArrayList<>();
+        for (Estatisticas e : REGISTRO.values()) {
+            lista.add(new Instantaneo(e));
+        }
+        lista.sort((a, b) -> Long.compare(b.esperaTotalNs, a.esperaTotalNs));
+        return lista;
+    }
+
+    /**
+     * Entrega a cada período a diferença desde o período anterior (mesma
+     * ordenação de instantaneos()). Encerrar com shutdown() no executor.
+     */
+    static ScheduledExecutorService relatorio(long periodo, TimeUnit unidade,
+                                              Consumer<List<Instantaneo>> consumidor) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "PerfilLocks-relatorio");
+            t.setDaemon(true);
+            return t;
+        });
+        Map<String, Instantaneo> anteriores = new HashMap<>();
+        executor.scheduleAtFixedRate(() -> {
+            List<Instantaneo> periodoAtual = new ArrayList<>();
+            for (Instantaneo agora : instantaneos()) {
+                periodoAtual.add(agora.menos(anteriores.put(agora.nome, agora)));
+            }
+            periodoAtual.sort((a, b) -> Long.compare(b.esperaTotalNs, a.esperaTotalNs));
+            consumidor.accept(periodoAtual);
+        }, periodo, periodo, unidade);
+        return executor;
+    }
+
+    // ========================================================================
+    // PRIMITIVAS INSTRUMENTADAS
+    // ========================================================================
+    //
+    // A tentativa imediata usa as variantes com prazo zero, que respeitam a
+    // fila do modo fair. Se a thread já estava interrompida, elas lançam
+    // InterruptedException: as variantes não interrompíveis restauram a
+    // interrupção e seguem pelo caminho bloqueante original.
+
+    /**
+     * ReentrantLock que mede espera, posse (da aquisição mais externa até o
+     * unlock correspondente) e fila
+     */
+    static class ReentrantLockPerfilado extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+        final transient Estatisticas estatisticas;
+        long inicioPosse;  // escrito só pelo dono
+
+        ReentrantLockPerfilado(String nome, boolean fair) {
+            super(fair);
+            estatisticas = estatisticas(nome);
+        }
+
+        @Override
+        public void lock() {
+            if (imediato()) {
+                return;
+            }
+            int fila = getQueueLength();
+            long t0 = System.nanoTime();
+            super.lock();
+            adquirido(t0, fila);
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (super.tryLock(0, TimeUnit.NANOSECONDS)) {
+                adquirido(0, -1);
+                return;
+            }
+            int fila = getQueueLength();
+            long t0 = System.nanoTime();
+            super.lockInterruptibly();
+            adquirido(t0, fila);
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!super.tryLock()) {
+                return false;
+            }
+            adquirido(0, -1);
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long tempo, TimeUnit unidade) throws InterruptedException {
+            if (super.tryLock(0, TimeUnit.NANOSECONDS)) {
+                adquirido(0, -1);
+                return true;
+            }
+            int fila = getQueueLength();
+            long t0 = System.nanoTime();
+            if (!super.tryLock(tempo, unidade)) {
+                return false;
+            }
+            adquirido(t0, fila);
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if (getHoldCount() == 1) {
+                estatisticas.posse(System.nanoTime() - inicioPosse);
+            }
+            super.unlock();
+        }
+
+        boolean imediato() {
+            try {
+                if (super.tryLock(0, TimeUnit.NANOSECONDS)) {
+                    adquirido(0, -1);
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        /**
+         * fila < 0: aquisição imediata (t0 não usado)
+         */
+        void adquirido(long t0, int fila) {
+            long agora = System.nanoTime();
+            if (fila < 0) {
+                estatisticas.imediata();
+            } else {
+                estatisticas.disputada(agora - t0, fila);
+            }
+            if (getHoldCount() == 1) {
+                inicioPosse = agora;
+            }
+        }
+    }
+
+    /**
+     * Semaphore que mede espera, fila e posse de cada aquisição. A posse vai
+     * do acquire ao release da mesma thread: cada aquisição empilha o
+     * instante na thread e cada release desempilha um. Release por outra
+     * thread (produtor/consumidor, sinalização) não tem posse, e a pilha da
+     * thread que adquire é limitada a MAX_PENDENTES: cheia, descarta o
+     * instante mais antigo em vez de crescer sem fim.
+     *
+     * As variantes com várias permissões contam como uma aquisição e um
+     * release cada.
+     */
+    static class SemaphorePerfilado extends Semaphore {
+        private static final long serialVersionUID = 1L;
+        static final int MAX_PENDENTES = 64;
+        final transient Estatisticas estatisticas;
+
+        /**
+         * Instantes de aquisição ainda não liberados pela thread, em anel
+         */
+        static final class Pendentes {
+            final long[] instantes = new long[MAX_PENDENTES];
+            int topo;
+            int tamanho;
+
+            void empilhar(long instante) {
+                instantes[topo] = instante;
+                topo = (topo + 1) % MAX_PENDENTES;
+                tamanho = Math.min(tamanho + 1, MAX_PENDENTES);
+            }
+
+            /**
+             * Instante da aquisição mais recente (tamanho > 0)
+             */
+            long desempilhar() {
+                tamanho--;
+                topo = (topo + MAX_PENDENTES - 1) % MAX_PENDENTES;
+                return instantes[topo];
+            }
+        }
+
+        final transient ThreadLocal<Pendentes> pendentes = ThreadLocal.withInitial(Pendentes::new);
+
+        SemaphorePerfilado(String nome, int permissoes, boolean fair) {
+            super(permissoes, fair);
+            estatisticas = estatisticas(nome);
+        }
+
+        @Override
+        public void acquire() throws InterruptedException {
+            acquire(1);
+        }
+
+        @Override
+        public void acquire(int permissoes) throws InterruptedException {
+            if (super.tryAcquire(permissoes, 0, TimeUnit.NANOSECONDS)) {
+                adquirido(0, -1);
+                return;
+            }
+            int fila = getQueueLength();
+            long t0 = System.nanoTime();
+            super.acquire(permissoes);
+            adquirido(t0, fila);
+        }
+
+        @Override
+        public void acquireUninterruptibly() {
+            acquireUninterruptibly(1);
+        }
+
+        @Override
+        public void acquireUninterruptibly(int permissoes) {
+            try {
+                if (super.tryAcquire(permissoes, 0, TimeUnit.NANOSECONDS)) {
+                    adquirido(0, -1);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int fila = getQueueLength();
+            long t0 = System.nanoTime();
+            super.acquireUninterruptibly(permissoes);
+            adquirido(t0, fila);
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            return tryAcquire(1);
+        }
+
+        @Override
+        public boolean tryAcquire(int permissoes) {
+            if (!super.tryAcquire(permissoes)) {
+                return false;
+            }
+            adquirido(0, -1);
+            return true;
+        }
+
+        @Override
+        public boolean tryAcquire(long tempo, TimeUnit unidade) throws InterruptedException {
+            return tryAcquire(1, tempo, unidade);
+        }
+
+        @Override
+        public boolean tryAcquire(int permissoes, long tempo, TimeUnit unidade) throws InterruptedException {
+            if (super.tryAcquire(permissoes, 0, TimeUnit.NANOSECONDS)) {
+                adquirido(0, -1);
+                return true;
+            }
+            int fila = getQueueLength();
+            long t0 = System.nanoTime();
+            if (!super.tryAcquire(permissoes, tempo, unidade)) {
+                return false;
+            }
+            adquirido(t0, fila);
+            return true;
+        }
+
+        @Override
+        public void release() {
+            release(1);
+        }
+
+        @Override
+        public void release(int permissoes) {
+            Pendentes p = pendentes.get();
+            if (p.tamanho > 0) {
+                estatisticas.posse(System.nanoTime() - p.desempilhar());
+            }
+            super.release(permissoes);
+        }
+
+        void adquirido(long t0, int fila) {
+            long agora = System.nanoTime();
+            if (fila < 0) {
+                estatisticas.imediata();
+            } else {
+                estatisticas.disputada(agora - t0, fila);
+            }
+            pendentes.get().empilhar(agora);
+        }
+    }
+
+    /**
+     * Monitor: a seção crítica roda em synchronized(this). A JVM não informa
+     * se a entrada vai bloquear, então a disputa é estimada pelo campo dono
+     * (lido antes de entrar) e a fila por um contador das threads que
+     * encontraram o monitor ocupado.
+     */
+    static class MonitorPerfilado {
+        final Estatisticas estatisticas;
+        final AtomicInteger entrando = new AtomicInteger();
+        volatile Thread dono;
+
+        MonitorPerfilado(String nome) {
+            estatisticas = estatisticas(nome);
+        }
+
+        void executar(Runnable secao) {
+            executar(() -> {
+                secao.run();
+                return null;
+            });
+        }
+
+        <T> T executar(Supplier<T> secao) {
+            Thread eu = Thread.currentThread();
+            if (dono == eu) {
+                return secao.get();  // reentrante: já medido na entrada externa
+            }
+            boolean disputada = dono != null;
+            int fila = disputada ? entrando.getAndIncrement() : 0;
+            long t0 = disputada ? System.nanoTime() : 0;
+            synchronized (this) {
+                long inicio = System.nanoTime();
+                if (disputada) {
+                    entrando.decrementAndGet();
+                    estatisticas.disputada(inicio - t0, fila);
+                } else {
+                    estatisticas.imediata();
+                }
+                dono = eu;
+                try {
+                    return secao.get();
+                } finally {
+                    dono = null;
+                    estatisticas.posse(System.nanoTime() - inicio);
+                }
+            }
+        }
+    }
+
+    // ========================================================================
+    // DEMONSTRAÇÃO: CUSTO E LOCKS QUENTES
+    // ========================================================================
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     PERFIL DE CONTENÇÃO POR LOCK                     ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Threads: %d | Operações por thread: %,d%n%n", threads, operacoes);
+
+        // 1. Custo: contador protegido por cada primitiva, original vs perfilada
+        System.out.println("1. Custo por operação (ns, count++ protegido)");
+        System.out.printf("   %-16s %12s %12s %10s%n", "", "Original", "Perfilado", "Extra");
+        Semaphore semaforo = new Semaphore(1);
+        SemaphorePerfilado semaforoP = new SemaphorePerfilado("custo-semaphore", 1, false);
+        ReentrantLock lock = new ReentrantLock();
+        ReentrantLockPerfilado lockP = new ReentrantLockPerfilado("custo-reentrantlock", false);
+        Object monitor = new Object();
+        MonitorPerfilado monitorP = new MonitorPerfilado("custo-monitor");
+        long[] count = new long[1];
+        for (int rodada = 0; rodada < 2; rodada++) {  // 1ª rodada aquece o JIT
+            double[][] r = {
+                {medir(threads, operacoes, () -> { semaforo.acquire(); count[0]++; semaforo.release(); }),
+                 medir(threads, operacoes, () -> { semaforoP.acquire(); count[0]++; semaforoP.release(); })},
+                {medir(threads, operacoes, () -> { lock.lock(); count[0]++; lock.unlock(); }),
+                 medir(threads, operacoes, () -> { lockP.lock(); count[0]++; lockP.unlock(); })},
+                {medir(threads, operacoes, () -> { synchronized (monitor) { count[0]++; } }),
+                 medir(threads, operacoes, () -> monitorP.executar(() -> { count[0]++; }))}
+            };
+            if (rodada == 1) {
+                String[] nomes = {"Semaphore", "ReentrantLock", "synchronized"};
+                for (int i = 0; i < r.length; i++) {
+                    System.out.printf("   %-16s %12.1f %12.1f %+9.0f%%%n", nomes[i], r[i][0], r[i][1],
+                                      100 * (r[i][1] / r[i][0] - 1));
+                }
+            }
+        }
+        System.out.println();
+
+        // 2. Um serviço simulado: um lock quente (cache global), locks por
+        //    conta (mesmo nome, somados) e um lock frio (configuração)
+        System.out.println("2. Relatório periódico (a cada 500 ms, ordenado por espera)");
+        ReentrantLockPerfilado cache = new ReentrantLockPerfilado("cache-global", false);
+        ReentrantLockPerfilado[] contas = new ReentrantLockPerfilado[64];
+        for (int i = 0; i < contas.length; i++) {
+            contas[i] = new ReentrantLockPerfilado("conta", false);
+        }
+        MonitorPerfilado configuracao = new MonitorPerfilado("configuracao");
+        Set<String> servico = Set.of("cache-global", "conta", "configuracao");
+        Mecanismo.trabalhoSecaoCritica = 2000;  // só o cache-global faz trabalho sob o lock
+
+        ScheduledExecutorService relatorio = relatorio(500, TimeUnit.MILLISECONDS, periodo -> {
+            StringBuilder linha = new StringBuilder("   ");
+            for (Instantaneo i : periodo) {
+                if (servico.contains(i.nome)) {
+                    linha.append(String.format("%s: %,d aq %.2f%% disp %,.0f µs esp | ",
+                                               i.nome, i.aquisicoes, i.percentualDisputadas(),
+                                               i.esperaTotalNs / 1e3));
+                }
+            }
+            System.out.println(linha);
+        });
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        Thread[] ts = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            ts[t] = new Thread(() -> {
+                Random random = new Random();
+                long residuo = 0;
+                while (System.nanoTime() - prazo < 0) {
+                    cache.lock();
+                    try {
+                        residuo = Mecanismo.simularTrabalho(residuo) + 1;
+                    } finally {
+                        cache.unlock();
+                    }
+                    ReentrantLockPerfilado conta = contas[random.nextInt(contas.length)];
+                    conta.lock();
+                    try {
+                        residuo++;
+                    } finally {
+                        conta.unlock();
+                    }
+                    if (random.nextInt(1000) == 0) {
+                        configuracao.executar(() -> { });
+                    }
+                }
+            });
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        relatorio.shutdown();
+        relatorio.awaitTermination(1, TimeUnit.SECONDS);
+        System.out.println();
+
+        // 3. Totais lidos pelo MBeanServer, como uma ferramenta JMX veria
+        System.out.println("3. Totais via JMX (" + DOMINIO + ":type=Lock,name=...)");
+        System.out.printf("   %-22s %12s %8s %12s %12s %10s %10s %8s%n", "Lock", "Aquisições", "Disp.",
+                          "Espera méd", "Espera máx", "Posse méd", "Posse máx", "Fila");
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        for (Instantaneo i : instantaneos()) {
+            ObjectName nome = objectName(i.nome);
+            long aquisicoes = (Long) servidor.getAttribute(nome, "Aquisicoes");
+            long disputadas = (Long) servidor.getAttribute(nome, "Disputadas");
+            long esperaTotal = (Long) servidor.getAttribute(nome, "EsperaTotalNs");
+            long posseTotal = (Long) servidor.getAttribute(nome, "PosseTotalNs");
+            System.out.printf("   %-22s %,12d %7.2f%% %,9.0f ns %,9d ns %,7.0f ns %,7d ns %8.2f%n",
+                              i.nome, aquisicoes, 100.0 * disputadas / Math.max(1, aquisicoes),
+                              (double) esperaTotal / Math.max(1, disputadas),
+                              (Long) servidor.getAttribute(nome, "EsperaMaxNs"),
+                              (double) posseTotal / Math.max(1, aquisicoes),
+                              (Long) servidor.getAttribute(nome, "PosseMaxNs"),
+                              (Double) servidor.getAttribute(nome, "FilaMedia"));
+        }
+        System.out.println();
+        System.out.println("💡 O lock quente é o que soma mais espera (a lista vem ordenada por ela),");
+        System.out.println("   não o mais adquirido: \"conta\" tem tantas aquisições quanto");
+        System.out.println("   \"cache-global\", espalhadas em 64 locks. Com mais threads que núcleos,");
+        System.out.println("   a disputa aparece quando o dono é preemptado segurando o lock, e cada");
+        System.out.println("   espera dura uma fatia de tempo do escalonador.");
+    }
+
+    @FunctionalInterface
+    interface Acao {
+        void executar() throws InterruptedException;
+    }
+
+    /**
+     * ns por operação (tempo de parede / operações totais)
+     */
+    static double medir(int threads, int operacoes, Acao acao) throws InterruptedException {
+        Thread[] ts = new Thread[threads];
+        long inicio = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            ts[i] = new Thread(() -> {
+                try {
+                    for (int k = 0; k < operacoes; k++) {
+                        acao.executar();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            ts[i].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        return (System.nanoTime() - inicio) / (double) ((long) threads * operacoes);
+    }
+}
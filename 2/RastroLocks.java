@@ -0,0 +1,205 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gravador binário de eventos de lock em um arquivo mapeado em memória
+ * (opt-in: ComparacaoSincronizacao --rastro=arquivo).
+ *
+ * Cada evento é um registro de REGISTRO_BYTES:
+ *   long nanoTime | int thread | int (lock << 4 | tipo)
+ *
+ * Aquisição imediata grava só ADQUIRIDO (espera zero); TENTATIVA e
+ * ESTACIONADO aparecem apenas quando a thread precisou esperar. Assim o caso
+ * comum custa dois eventos por seção crítica. Monitores (registrarMonitor)
+ * não têm tentativa imediata: gravam só ADQUIRIDO com o instante de antes
+ * de entrar, e a espera deles fica desconhecida (somada à posse).
+ *
+ * O arquivo é dividido em blocos de BLOCO_BYTES. Uma thread reserva um bloco
+ * inteiro com um único getAndIncrement e grava nele sequencialmente, sem
+ * atomics nem locks: o custo por evento é um nanoTime e três escritas na
+ * memória mapeada. Registros não usados no fim de um bloco ficam zerados
+ * (tipo 0) e são ignorados na leitura. Com o arquivo cheio os eventos são
+ * descartados e contados.
+ *
+ * close() grava no arquivo os nomes dos locks (cada um seguido de um
+ * boolean: é monitor) e das threads (os registros guardam só índices) e o
+ * trunca no tamanho usado. A análise é feita depois,
+ * por AnaliseRastro.
+ *
+ * Formato do cabeçalho (CABECALHO_BYTES, little-endian):
+ *   0 int MAGICO | 4 int REGISTRO_BYTES | 8 int BLOCO_BYTES
+ *   16 long blocos usados | 24 long eventos descartados | 32 long offset dos nomes
+ */
+public final class RastroLocks implements AutoCloseable {
+
+    static final int MAGICO = 0x524C4B32;  // "RLK2"
+    static final int REGISTRO_BYTES = 16;
+    static final int BLOCO_BYTES = 16 * 1024;
+    static final int CABECALHO_BYTES = 4096;
+    static final long CAPACIDADE_PADRAO = 1L << 30;
+
+    // Tipos de evento (0 = registro vazio)
+    static final int TENTATIVA = 1;
+    static final int ADQUIRIDO = 2;
+    static final int LIBERADO = 3;
+    static final int ESTACIONADO = 4;  // a tentativa imediata falhou: a thread vai esperar
+
+    final Path arquivo;
+    final FileChannel canal;
+    final MappedByteBuffer mapa;
+    final long totalBlocos;
+    final AtomicLong proximoBloco = new AtomicLong();
+    final LongAdder descartados = new LongAdder();
+
+    final List<String> locks = new ArrayList<>();
+    final BitSet monitores = new BitSet();
+    final List<String> threads = new ArrayList<>();
+    final AtomicInteger proximaThread = new AtomicInteger();
+
+    /**
+     * Bloco corrente de uma thread
+     */
+    final class Bloco {
+        final int thread;
+        ByteBuffer dados;  // null: arquivo cheio
+        int posicao = BLOCO_BYTES;
+
+        Bloco() {
+            thread = proximaThread.getAndIncrement();
+            synchronized (threads) {
+                while (threads.size() <= thread) {
+                    threads.add(null);
+                }
+                threads.set(thread, Thread.currentThread().getName());
+            }
+            reservar();
+        }
+
+        void reservar() {
+            long indice = proximoBloco.getAndIncrement();
+            if (indice >= totalBlocos) {
+                dados = null;
+                return;
+            }
+            dados = mapa.slice((int) (CABECALHO_BYTES + indice * BLOCO_BYTES), BLOCO_BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            posicao = 0;
+        }
+    }
+
+    final ThreadLocal<Bloco> bloco = ThreadLocal.withInitial(Bloco::new);
+
+    /**
+     * @param capacidade tamanho máximo do arquivo em bytes (até 2 GiB, um mapeamento)
+     */
+    RastroLocks(Path arquivo, long capacidade) throws IOException {
+        this.arquivo = arquivo;
+        long tamanho = Math.min(capacidade, Integer.MAX_VALUE);
+        totalBlocos = (tamanho - CABECALHO_BYTES) / BLOCO_BYTES;
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        // Arquivo esparso: só as páginas tocadas ocupam disco e memória
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0,
+                         CABECALHO_BYTES + totalBlocos * BLOCO_BYTES);
+    }
+
+    /**
+     * Registra um lock e devolve o id a usar nos eventos
+     */
+    synchronized int registrarLock(String nome) {
+        locks.add(nome);
+        return locks.size() - 1;
+    }
+
+    /**
+     * Registra um monitor (synchronized): sem TENTATIVA, espera desconhecida
+     */
+    synchronized int registrarMonitor(String nome) {
+        int id = registrarLock(nome);
+        monitores.set(id);
+        return id;
+    }
+
+    void evento(int lock, int tipo) {
+        evento(lock, tipo, System.nanoTime());
+    }
+
+    /**
+     * Caminho crítico do gravador: sem sincronização fora da troca de bloco.
+     * Recebe o instante para que o chamador reaproveite um nanoTime já lido.
+     */
+    void evento(int lock, int tipo, long agora) {
+        Bloco b = bloco.get();
+        if (b.posicao == BLOCO_BYTES) {
+            if (b.dados == null) {
+                descartados.increment();
+                return;
+            }
+            b.reservar();
+            if (b.dados == null) {
+                descartados.increment();
+                return;
+            }
+        }
+        ByteBuffer d = b.dados;
+        int p = b.posicao;
+        d.putLong(p, agora);
+        d.putInt(p + 8, b.thread);
+        d.putInt(p + 12, lock << 4 | tipo);
+        b.posicao = p + REGISTRO_BYTES;
+    }
+
+    long eventosDescartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * Grava cabeçalho e nomes e trunca o arquivo. Só deve ser chamado depois
+     * que as threads rastreadas terminaram.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        long usados = Math.min(proximoBloco.get(), totalBlocos);
+        long offsetNomes = CABECALHO_BYTES + usados * BLOCO_BYTES;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(locks.size());
+            for (int i = 0; i < locks.size(); i++) {
+                out.writeUTF(locks.get(i));
+                out.writeBoolean(monitores.get(i));
+            }
+            synchronized (threads) {
+                out.writeInt(threads.size());
+                for (String nome : threads) {
+                    out.writeUTF(nome == null ? "?" : nome);
+                }
+            }
+        }
+
+        ByteBuffer cabecalho = mapa.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        cabecalho.putInt(0, MAGICO);
+        cabecalho.putInt(4, REGISTRO_BYTES);
+        cabecalho.putInt(8, BLOCO_BYTES);
+        cabecalho.putLong(16, usados);
+        cabecalho.putLong(24, descartados.sum());
+        cabecalho.putLong(32, offsetNomes);
+
+        canal.write(ByteBuffer.wrap(bytes.toByteArray()), offsetNomes);
+        canal.truncate(offsetNomes + bytes.size());
+        canal.close();
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Base comum dos locks de espera ativa (TicketLock, ClhLock, McsLock).
+ *
+ * As subclasses implementam lock(), tryLock() e unlock(); aqui ficam as
+ * operações derivadas da interface Lock. Os locks não são reentrantes e
+ * unlock() deve ser chamado pela thread que detém o lock.
+ */
+public abstract class SpinLockBase implements Lock {
+    
+    // Iterações de onSpinWait() antes de começar a ceder o processador
+    static final int GIROS_ANTES_DE_YIELD = 256;
+    
+    /**
+     * Um passo de espera ativa. Depois de GIROS_ANTES_DE_YIELD tentativas,
+     * cede o processador: com mais threads do que núcleos, a próxima da fila
+     * pode não estar executando e girar só atrasaria a entrega do lock.
+     */
+    static void esperar(int tentativa) {
+        if (tentativa < GIROS_ANTES_DE_YIELD) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+    
+    /**
+     * Verifica a interrupção apenas antes de entrar na fila: uma vez
+     * enfileirada, a thread espera a sua vez (sair da fila exigiria as
+     * variantes "abortáveis" dos algoritmos).
+     */
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        lock();
+    }
+    
+    /**
+     * Repete tryLock() até conseguir ou até o prazo expirar
+     */
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        long prazo = System.nanoTime() + unit.toNanos(time);
+        int tentativa = 0;
+        while (!tryLock()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() - prazo >= 0) {
+                return false;
+            }
+            esperar(tentativa++);
+        }
+        return true;
+    }
+    
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException("Locks de espera ativa não suportam Condition");
+    }
+}
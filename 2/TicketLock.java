@@ -0,0 +1,37 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ticket lock: cada thread retira uma senha (getAndIncrement) e espera até
+ * que "atendendo" chegue à sua senha. Ordem FIFO com um único CAS/XADD por
+ * aquisição, mas todas as threads giram sobre a mesma variável: cada
+ * liberação invalida a linha de cache de todos os que esperam.
+ */
+public class TicketLock extends SpinLockBase {
+    
+    final AtomicLong proximaSenha = new AtomicLong();
+    
+    // Em objeto separado de proximaSenha: quem retira senha não disputa a
+    // linha com quem está girando
+    volatile long atendendo;
+    
+    @Override
+    public void lock() {
+        long senha = proximaSenha.getAndIncrement();
+        int tentativa = 0;
+        while (atendendo != senha) {
+            esperar(tentativa++);
+        }
+    }
+    
+    @Override
+    public boolean tryLock() {
+        long atual = atendendo;
+        return proximaSenha.compareAndSet(atual, atual + 1);
+    }
+    
+    @Override
+    public void unlock() {
+        // Só o dono escreve em "atendendo"
+        atendendo = atendendo + 1;
+    }
+}
@@ -0,0 +1,256 @@
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Aquisição de N locks de uma vez, sem deadlock.
+ *
+ * DeadlockDemo e DeadlockCorrigido aninham synchronized à mão, o que não
+ * escala para operações sobre um conjunto arbitrário de recursos (garfos,
+ * pares de contas). Dois modos:
+ *
+ *   adquirirTodos        ordena os locks por identidade estável e pega em
+ *                        ordem (hierarquia de recursos, como LOCK_A < LOCK_B).
+ *                        Empates de identityHashCode passam por um lock de
+ *                        desempate global.
+ *   tentarAdquirirTodos  tryLock em cada um; se algum falhar, solta todos e
+ *                        espera um backoff exponencial aleatório antes de
+ *                        tentar de novo (nega hold-and-wait). Não precisa de
+ *                        ordem, mas pode repetir muito (livelock) sob contenção.
+ *
+ * Uso: java AquisicaoMultipla [threads] [duração ms]
+ *   (transferências entre pares de contas com contenção crescente)
+ */
+public class AquisicaoMultipla {
+
+    static final long BACKOFF_MIN_NS = 1_000;
+    static final long BACKOFF_MAX_NS = 1_000_000;
+
+    // Pego antes do conjunto quando dois locks têm o mesmo identityHashCode
+    static final Lock DESEMPATE = new ReentrantLock();
+
+    // Rodadas de tryLock que falharam (soltaram tudo e esperaram)
+    static final LongAdder RETENTATIVAS = new LongAdder();
+
+    /**
+     * Pega todos os locks em ordem global crescente de identityHashCode.
+     * Retorna os locks na ordem em que foram pegos (para liberarTodos).
+     */
+    static Lock[] adquirirTodos(Lock... locks) {
+        Lock[] ordenados = locks.clone();
+        Arrays.sort(ordenados, Comparator.comparingInt(System::identityHashCode));
+
+        boolean empate = false;
+        for (int i = 1; i < ordenados.length; i++) {
+            if (System.identityHashCode(ordenados[i]) == System.identityHashCode(ordenados[i - 1])
+                && ordenados[i] != ordenados[i - 1]) {
+                empate = true;
+            }
+        }
+
+        // Com empate a ordem entre os empatados é arbitrária: o lock de
+        // desempate garante que só uma thread por vez dependa dela
+        if (empate) {
+            DESEMPATE.lock();
+        }
+        try {
+            int pegos = 0;
+            try {
+                for (Lock lock : ordenados) {
+                    lock.lock();
+                    pegos++;
+                }
+            } finally {
+                if (pegos < ordenados.length) {
+                    for (int i = pegos - 1; i >= 0; i--) {
+                        ordenados[i].unlock();
+                    }
+                }
+            }
+        } finally {
+            if (empate) {
+                DESEMPATE.unlock();
+            }
+        }
+        return ordenados;
+    }
+
+    /**
+     * Tenta pegar todos com tryLock; a cada falha solta os já pegos e espera
+     * um tempo aleatório em [atraso/2, atraso], dobrando atraso até o máximo.
+     * Retorna false se o prazo acabar sem conseguir.
+     */
+    static boolean tentarAdquirirTodos(long prazo, TimeUnit unidade, Lock... locks)
+            throws InterruptedException {
+        long limite = System.nanoTime() + unidade.toNanos(prazo);
+        long atraso = BACKOFF_MIN_NS;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int pegos = 0;
+            while (pegos < locks.length && locks[pegos].tryLock()) {
+                pegos++;
+            }
+            if (pegos == locks.length) {
+                return true;
+            }
+            for (int i = pegos - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+            RETENTATIVAS.increment();
+
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(restante, random.nextLong(atraso / 2, atraso + 1)));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            atraso = Math.min(atraso * 2, BACKOFF_MAX_NS);
+        }
+    }
+
+    /**
+     * Solta na ordem inversa da aquisição
+     */
+    static void liberarTodos(Lock... locks) {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    // ========================================================================
+    // BENCHMARK: TRANSFERÊNCIAS ENTRE CONTAS
+    // ========================================================================
+
+    enum Modo {
+        ORDENADO("adquirirTodos (ordem global)"),
+        TRY_BACKOFF("tryLock + backoff aleatório"),
+        TRY_SEM_BACKOFF("tryLock + repetição imediata");
+
+        final String nome;
+
+        Modo(String nome) {
+            this.nome = nome;
+        }
+    }
+
+    static final int[] CONTAS = {1024, 64, 8, 2};
+    static final long SALDO_INICIAL = 1_000;
+
+    static volatile boolean emExecucao;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int duracaoMs = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     AQUISIÇÃO DE MÚLTIPLOS LOCKS SEM DEADLOCK        ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Threads: %d | Duração: %d ms | Cada operação trava 2 contas%n%n",
+                          threads, duracaoMs);
+
+        System.out.printf("%8s  %-30s %14s %16s %10s%n",
+                          "Contas", "Modo", "Transf./s", "Retentativas/op", "Saldo");
+        for (int contas : CONTAS) {
+            for (Modo modo : Modo.values()) {
+                executar(modo, contas, threads, duracaoMs / 4);  // aquecimento
+                double[] r = executar(modo, contas, threads, duracaoMs);
+                System.out.printf("%,8d  %-30s %,14.0f %16.3f %10s%n",
+                                  contas, modo.nome, r[0], r[1], r[2] == 0 ? "✅" : "❌");
+            }
+            System.out.println();
+        }
+
+        System.out.println("💡 Menos contas = mais contenção. A ordem global nunca repete, mas");
+        System.out.println("   espera bloqueada; o tryLock não precisa de ordem e paga em");
+        System.out.println("   retentativas. Sem backoff as threads colidem de novo em seguida");
+        System.out.println("   (livelock); o backoff aleatório as dessincroniza.");
+    }
+
+    /**
+     * Retorna {transferências/s, retentativas por transferência, erro de saldo}
+     */
+    static double[] executar(Modo modo, int contas, int threads, int duracaoMs)
+            throws InterruptedException {
+        Lock[] locks = new Lock[contas];
+        long[] saldos = new long[contas];
+        for (int i = 0; i < contas; i++) {
+            locks[i] = new ReentrantLock();
+            saldos[i] = SALDO_INICIAL;
+        }
+        LongAdder transferencias = new LongAdder();
+        RETENTATIVAS.reset();
+
+        emExecucao = true;
+        Thread[] ts = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            ts[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long feitas = 0;
+                try {
+                    while (emExecucao) {
+                        int origem = random.nextInt(contas);
+                        int destino = random.nextInt(contas - 1);
+                        if (destino >= origem) {
+                            destino++;
+                        }
+                        Lock a = locks[origem];
+                        Lock b = locks[destino];
+
+                        Lock[] pegos;
+                        if (modo == Modo.ORDENADO) {
+                            pegos = adquirirTodos(a, b);
+                        } else if (modo == Modo.TRY_BACKOFF) {
+                            tentarAdquirirTodos(Long.MAX_VALUE / 2, TimeUnit.NANOSECONDS, a, b);
+                            pegos = new Lock[] {a, b};
+                        } else {
+                            pegos = new Lock[] {a, b};
+                            while (!(a.tryLock() && tentarSegundo(a, b))) {
+                                RETENTATIVAS.increment();
+                            }
+                        }
+                        try {
+                            saldos[origem]--;
+                            saldos[destino]++;
+                        } finally {
+                            liberarTodos(pegos);
+                        }
+                        feitas++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                transferencias.add(feitas);
+            });
+            ts[t].start();
+        }
+
+        Thread.sleep(duracaoMs);
+        emExecucao = false;
+        for (Thread t : ts) {
+            t.join();
+        }
+
+        long soma = Arrays.stream(saldos).sum();
+        long total = transferencias.sum();
+        return new double[] {total / (duracaoMs / 1000.0),
+                             RETENTATIVAS.sum() / (double) Math.max(1, total),
+                             soma - (long) contas * SALDO_INICIAL};
+    }
+
+    /**
+     * Segundo tryLock da repetição imediata: solta o primeiro se falhar
+     */
+    static boolean tentarSegundo(Lock a, Lock b) {
+        if (b.tryLock()) {
+            return true;
+        }
+        a.unlock();
+        return false;
+    }
+}
@@ -1,14 +1,15 @@
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-
 public class DeadlockCorrigido {
     
     // Mesmos locks que a versão com deadlock
     static final Object LOCK_A = new Object();
     static final Object LOCK_B = new Object();
     
-    // Formatador para timestamps
-    static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    // Ids dos locks nos eventos JFR (EventosLock)
+    static final int ID_LOCK_A = 0;
+    static final int ID_LOCK_B = 1;
+    
+    // Log assíncrono: formatar e imprimir fora das threads demonstradas
+    static final LogAssincrono LOG = new LogAssincrono(System.out, 10);
     
     public static void main(String[] args) throws InterruptedException {
         System.out.println("╔══════════════════════════════════════════════════════╗");
@@ -27,14 +28,18 @@ public class DeadlockCorrigido {
             log("Thread-1", "Ordem de aquisição: LOCK_A → LOCK_B (conforme hierarquia)");
             
             log("Thread-1", "Tentando adquirir LOCK_A...");
+            EventosLock.Aquisicao aquisicaoA = EventosLock.tentar(ID_LOCK_A, "LOCK_A");
             synchronized (LOCK_A) {
+                aquisicaoA.adquirido();
                 log("Thread-1", "✓ LOCK_A ADQUIRIDO");
                 
                 log("Thread-1", "Aguardando 50ms...");
                 dormir(50);
                 
                 log("Thread-1", "Tentando adquirir LOCK_B...");
+                EventosLock.Aquisicao aquisicaoB = EventosLock.tentar(ID_LOCK_B, "LOCK_B");
                 synchronized (LOCK_B) {
+                    aquisicaoB.adquirido();
                     log("Thread-1", "✓ LOCK_B ADQUIRIDO");
                     
                     // Trabalho na seção crítica
@@ -42,8 +47,10 @@ public class DeadlockCorrigido {
                     dormir(100);
                     
                     log("Thread-1", "🎉 CONCLUIU COM SUCESSO");
+                    aquisicaoB.liberando();
                 }
                 log("Thread-1", "Liberou LOCK_B");
+                aquisicaoA.liberando();
             }
             log("Thread-1", "Liberou LOCK_A");
             
@@ -56,14 +63,18 @@ public class DeadlockCorrigido {
             
             log("Thread-2", "Tentando adquirir LOCK_A...");
             // ✅ MUDANÇA CRÍTICA: Agora tenta LOCK_A primeiro (não LOCK_B)
+            EventosLock.Aquisicao aquisicaoA = EventosLock.tentar(ID_LOCK_A, "LOCK_A");
             synchronized (LOCK_A) {
+                aquisicaoA.adquirido();
                 log("Thread-2", "✓ LOCK_A ADQUIRIDO");
                 
                 log("Thread-2", "Aguardando 50ms...");
                 dormir(50);
                 
                 log("Thread-2", "Tentando adquirir LOCK_B...");
+                EventosLock.Aquisicao aquisicaoB = EventosLock.tentar(ID_LOCK_B, "LOCK_B");
                 synchronized (LOCK_B) {
+                    aquisicaoB.adquirido();
                     log("Thread-2", "✓ LOCK_B ADQUIRIDO");
                     
                     // Trabalho na seção crítica
@@ -71,8 +82,10 @@ public class DeadlockCorrigido {
                     dormir(100);
                     
                     log("Thread-2", "🎉 CONCLUIU COM SUCESSO");
+                    aquisicaoB.liberando();
                 }
                 log("Thread-2", "Liberou LOCK_B");
+                aquisicaoA.liberando();
             }
             log("Thread-2", "Liberou LOCK_A");
             
@@ -88,6 +101,7 @@ public class DeadlockCorrigido {
         // Aguardar conclusão
         thread1.join();
         thread2.join();
+        LOG.flush();
         
         long endTime = System.currentTimeMillis();
         double elapsed = (endTime - startTime) / 1000.0;
@@ -135,11 +149,11 @@ public class DeadlockCorrigido {
     }
     
     /**
-     * Log formatado com timestamp e nome da thread
+     * Log formatado com timestamp e nome da thread (assíncrono: a thread
+     * só grava o evento; LogAssincrono formata e imprime)
      */
     static void log(String threadName, String message) {
-        String time = LocalTime.now().format(TIME_FORMAT);
-        System.out.printf("[%s] %-10s %s%n", time, threadName + ":", message);
+        LOG.log(threadName, message);
     }
     
     /**
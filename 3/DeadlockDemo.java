@@ -1,14 +1,15 @@
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-
 public class DeadlockDemo {
     
     // Dois locks que serão adquiridos em ordens diferentes
     static final Object LOCK_A = new Object();
     static final Object LOCK_B = new Object();
     
-    // Formatador para timestamps nos logs
-    static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    // Ids dos locks nos eventos JFR (EventosLock)
+    static final int ID_LOCK_A = 0;
+    static final int ID_LOCK_B = 1;
+    
+    // Log assíncrono: formatar e imprimir fora das threads demonstradas
+    static final LogAssincrono LOG = new LogAssincrono(System.out, 10);
     
     public static void main(String[] args) {
         System.out.println("╔══════════════════════════════════════════════════════╗");
@@ -26,7 +27,9 @@ public class DeadlockDemo {
             log("Thread-1", "INICIADA");
             
             log("Thread-1", "Tentando adquirir LOCK_A...");
+            EventosLock.Aquisicao aquisicaoA = EventosLock.tentar(ID_LOCK_A, "LOCK_A");
             synchronized (LOCK_A) {
+                aquisicaoA.adquirido();
                 log("Thread-1", "✓ LOCK_A ADQUIRIDO");
                 
                 // Aguarda para dar tempo da Thread-2 adquirir LOCK_B
@@ -39,12 +42,16 @@ public class DeadlockDemo {
                 // ❌ DEADLOCK ACONTECE AQUI!
                 // Thread-1 fica bloqueada indefinidamente porque Thread-2 possui LOCK_B
                 // e está aguardando LOCK_A (que Thread-1 possui)
+                EventosLock.Aquisicao aquisicaoB = EventosLock.tentar(ID_LOCK_B, "LOCK_B");
                 synchronized (LOCK_B) {
+                    aquisicaoB.adquirido();
                     log("Thread-1", "✓ LOCK_B ADQUIRIDO");
                     log("Thread-1", "🎉 CONCLUIU COM SUCESSO");
+                    aquisicaoB.liberando();
                 }
                 
                 log("Thread-1", "Liberando LOCK_B");
+                aquisicaoA.liberando();
             }
             log("Thread-1", "Liberando LOCK_A");
             
@@ -55,7 +62,9 @@ public class DeadlockDemo {
             log("Thread-2", "INICIADA");
             
             log("Thread-2", "Tentando adquirir LOCK_B...");
+            EventosLock.Aquisicao aquisicaoB = EventosLock.tentar(ID_LOCK_B, "LOCK_B");
             synchronized (LOCK_B) {
+                aquisicaoB.adquirido();
                 log("Thread-2", "✓ LOCK_B ADQUIRIDO");
                 
                 // Aguarda para dar tempo da Thread-1 adquirir LOCK_A
@@ -68,12 +77,16 @@ public class DeadlockDemo {
                 // ❌ DEADLOCK ACONTECE AQUI!
                 // Thread-2 fica bloqueada indefinidamente porque Thread-1 possui LOCK_A
                 // e está aguardando LOCK_B (que Thread-2 possui)
+                EventosLock.Aquisicao aquisicaoA = EventosLock.tentar(ID_LOCK_A, "LOCK_A");
                 synchronized (LOCK_A) {
+                    aquisicaoA.adquirido();
                     log("Thread-2", "✓ LOCK_A ADQUIRIDO");
                     log("Thread-2", "🎉 CONCLUIU COM SUCESSO");
+                    aquisicaoA.liberando();
                 }
                 
                 log("Thread-2", "Liberando LOCK_A");
+                aquisicaoB.liberando();
             }
             log("Thread-2", "Liberando LOCK_B");
             
@@ -85,6 +98,7 @@ public class DeadlockDemo {
         
         // Aguardar 3 segundos e verificar se threads ainda estão vivas
         dormir(3000);
+        LOG.flush();
         
         System.out.println();
         System.out.println("════════════════════════════════════════════════════════");
@@ -133,11 +147,11 @@ public class DeadlockDemo {
     }
     
     /**
-     * Log formatado com timestamp e nome da thread
+     * Log formatado com timestamp e nome da thread (assíncrono: a thread
+     * só grava o evento; LogAssincrono formata e imprime)
      */
     static void log(String threadName, String message) {
-        String time = LocalTime.now().format(TIME_FORMAT);
-        System.out.printf("[%s] %-10s %s%n", time, threadName + ":", message);
+        LOG.log(threadName, message);
     }
     
     /**
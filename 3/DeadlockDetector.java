@@ -1,13 +1,16 @@
 import java.lang.management.*;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class DeadlockDetector {
     
     static final Object LOCK_A = new Object();
     static final Object LOCK_B = new Object();
-    static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    
+    // Ids dos locks nos eventos JFR (EventosLock)
+    static final int ID_LOCK_A = 0;
+    static final int ID_LOCK_B = 1;
+    // Log assíncrono: formatar e imprimir fora das threads demonstradas
+    static final LogAssincrono LOG = new LogAssincrono(System.out, 15);
     
     static volatile boolean deadlockDetected = false;
     
@@ -24,42 +27,31 @@ public class DeadlockDetector {
         System.out.println("════════════════════════════════════════════════════════");
         System.out.println();
         
-        // Iniciar monitor de deadlock em background
-        Thread monitor = new Thread(() -> {
-            ThreadMXBean tmx = ManagementFactory.getThreadMXBean();
+        // Iniciar monitor de deadlock em background (intervalo adaptativo;
+        // quem decide o que fazer com o deadlock é o ouvinte)
+        MonitorDeadlock monitor = new MonitorDeadlock(infos -> {
+            deadlockDetected = true;
+            LOG.flush();
             
-            while (!deadlockDetected) {
-                try {
-                    Thread.sleep(1000);  // Verificar a cada 1 segundo
-                    
-                    long[] deadlockedIds = tmx.findDeadlockedThreads();
-                    
-                    if (deadlockedIds != null && deadlockedIds.length > 0) {
-                        deadlockDetected = true;
-                        
-                        System.out.println();
-                        System.out.println("════════════════════════════════════════════════════════");
-                        System.out.println();
-                        System.out.println("🚨 DEADLOCK DETECTADO!");
-                        System.out.println();
-                        
-                        gerarRelatorioDeadlock(tmx, deadlockedIds);
-                        
-                        System.out.println("════════════════════════════════════════════════════════");
-                        System.out.println();
-                        System.out.println("Encerrando programa em 2 segundos...");
-                        Thread.sleep(2000);
-                        System.exit(0);
-                    }
-                    
-                } catch (InterruptedException e) {
-                    break;
-                }
+            System.out.println();
+            System.out.println("════════════════════════════════════════════════════════");
+            System.out.println();
+            System.out.println("🚨 DEADLOCK DETECTADO!");
+            System.out.println();
+            
+            long[] deadlockedIds = new long[infos.length];
+            for (int i = 0; i < infos.length; i++) {
+                deadlockedIds[i] = infos[i].getThreadId();
             }
-        }, "DeadlockMonitor");
-        
-        monitor.setDaemon(true);
-        monitor.start();
+            gerarRelatorioDeadlock(ManagementFactory.getThreadMXBean(), deadlockedIds);
+            
+            System.out.println("════════════════════════════════════════════════════════");
+            System.out.println();
+            System.out.println("Encerrando programa em 2 segundos...");
+            dormir(2000);
+            System.exit(0);
+        });
+        monitor.iniciar();
         
         log("MAIN", "Iniciando threads que causarão deadlock...");
         
@@ -68,14 +60,20 @@ public class DeadlockDetector {
             log("Thread-1", "Iniciada");
             log("Thread-1", "Adquirindo LOCK_A...");
             
+            EventosLock.Aquisicao aquisicaoA = EventosLock.tentar(ID_LOCK_A, "LOCK_A");
             synchronized (LOCK_A) {
+                aquisicaoA.adquirido();
                 log("Thread-1", "✓ LOCK_A adquirido");
                 dormir(100);  // Dar tempo para Thread-2 adquirir LOCK_B
                 
                 log("Thread-1", "Tentando LOCK_B...");
+                EventosLock.Aquisicao aquisicaoB = EventosLock.tentar(ID_LOCK_B, "LOCK_B");
                 synchronized (LOCK_B) {
+                    aquisicaoB.adquirido();
                     log("Thread-1", "✓ LOCK_B adquirido");
+                    aquisicaoB.liberando();
                 }
+                aquisicaoA.liberando();
             }
             
         }, "Thread-1-Worker");
@@ -85,14 +83,20 @@ public class DeadlockDetector {
             log("Thread-2", "Iniciada");
             log("Thread-2", "Adquirindo LOCK_B...");
             
+            EventosLock.Aquisicao aquisicaoB = EventosLock.tentar(ID_LOCK_B, "LOCK_B");
             synchronized (LOCK_B) {
+                aquisicaoB.adquirido();
                 log("Thread-2", "✓ LOCK_B adquirido");
                 dormir(100);  // Dar tempo para Thread-1 adquirir LOCK_A
                 
                 log("Thread-2", "Tentando LOCK_A...");
+                EventosLock.Aquisicao aquisicaoA = EventosLock.tentar(ID_LOCK_A, "LOCK_A");
                 synchronized (LOCK_A) {
+                    aquisicaoA.adquirido();
                     log("Thread-2", "✓ LOCK_A adquirido");
+                    aquisicaoA.liberando();
                 }
+                aquisicaoB.liberando();
             }
             
         }, "Thread-2-Worker");
@@ -235,11 +239,10 @@ public class DeadlockDetector {
     }
     
     /**
-     * Log formatado
+     * Log formatado (assíncrono, via LogAssincrono)
      */
     static void log(String source, String message) {
-        String time = LocalTime.now().format(TIME_FORMAT);
-        System.out.printf("[%s] %-15s %s%n", time, source + ":", message);
+        LOG.log(source, message);
     }
     
     /**
@@ -0,0 +1,150 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Eventos do Java Flight Recorder para as demos de deadlock. Espera e posse
+ * têm os mesmos nomes e campos dos eventos da parte 2 (EventosLock): uma
+ * gravação das demos abre no JMC do mesmo jeito que a dos mecanismos.
+ *
+ *   tde3.LockPedido     instantâneo: a thread vai pedir o lock (pode esperar)
+ *   tde3.LockAdquirido  duração = espera pelo lock; limiar padrão 1 ms
+ *   tde3.LockLiberado   duração = posse do lock; limiar padrão 1 ms
+ *
+ * O pedido é próprio das demos: synchronized não tem tentativa imediata,
+ * então não dá para gravar o tde3.LockTentativa da parte 2 ("a tentativa
+ * imediata falhou"). Ele fica ligado por padrão: as demos fazem poucas
+ * aquisições e, numa thread em deadlock, é o único evento (a aquisição
+ * nunca vem). Na gravação, o pedido sem aquisição seguinte aponta o lock
+ * travado.
+ *
+ * Como na parte 2, com os eventos desligados nada é alocado e o relógio
+ * não é lido: o custo é o teste de isEnabled().
+ *
+ * Gravação: java -XX:StartFlightRecording:filename=deadlock.jfr DeadlockDemo
+ *           jfr print --events tde3.LockPedido,tde3.LockAdquirido deadlock.jfr
+ */
+public final class EventosLock {
+
+    @Name("tde3.LockPedido")
+    @Label("Lock: pedido")
+    @Category({"TDE3", "Locks"})
+    @Description("A thread vai pedir o lock (pode esperar)")
+    static final class Pedido extends Event {
+        @Label("Id do lock")
+        int lock;
+
+        @Label("Lock")
+        String nome;
+    }
+
+    @Name("tde3.LockAdquirido")
+    @Label("Lock: adquirido")
+    @Category({"TDE3", "Locks"})
+    @Description("Duração = espera pelo lock, da tentativa até a aquisição")
+    @Threshold("1 ms")
+    static final class Adquirido extends Event {
+        @Label("Id do lock")
+        int lock;
+
+        @Label("Lock")
+        String nome;
+    }
+
+    @Name("tde3.LockLiberado")
+    @Label("Lock: liberado")
+    @Category({"TDE3", "Locks"})
+    @Description("Duração = posse do lock, da aquisição até a liberação")
+    @Threshold("1 ms")
+    static final class Liberado extends Event {
+        @Label("Id do lock")
+        int lock;
+
+        @Label("Lock")
+        String nome;
+    }
+
+    /**
+     * Uma aquisição de lock: tentar() antes de bloquear, adquirido() logo
+     * depois de entrar e liberando() antes de sair da seção crítica.
+     * Evento desligado fica null.
+     */
+    static final class Aquisicao {
+        final int lock;
+        final String nome;
+        final Adquirido espera;
+        final Liberado posse;
+
+        Aquisicao(int lock, String nome, Adquirido espera, Liberado posse) {
+            this.lock = lock;
+            this.nome = nome;
+            this.espera = espera;
+            this.posse = posse;
+        }
+
+        void adquirido() {
+            if (espera != null) {
+                espera.end();
+                if (espera.shouldCommit()) {
+                    espera.lock = lock;
+                    espera.nome = nome;
+                    espera.commit();
+                }
+            }
+            if (posse != null) {
+                posse.begin();
+            }
+        }
+
+        void liberando() {
+            if (posse == null) {
+                return;
+            }
+            posse.end();
+            if (posse.shouldCommit()) {
+                posse.lock = lock;
+                posse.nome = nome;
+                posse.commit();
+            }
+        }
+    }
+
+    // Instâncias nunca gravadas, só para consultar isEnabled() do tipo
+    static final Pedido SONDA_PEDIDO = new Pedido();
+    static final Adquirido SONDA_ADQUIRIDO = new Adquirido();
+    static final Liberado SONDA_LIBERADO = new Liberado();
+
+    // Compartilhada quando espera e posse estão desligadas: nada a medir
+    static final Aquisicao DESLIGADA = new Aquisicao(-1, null, null, null);
+
+    private EventosLock() {
+    }
+
+    /**
+     * Grava o pedido e começa a medir a espera
+     */
+    static Aquisicao tentar(int lock, String nome) {
+        if (SONDA_PEDIDO.isEnabled()) {
+            Pedido p = new Pedido();
+            if (p.shouldCommit()) {
+                p.lock = lock;
+                p.nome = nome;
+                p.commit();
+            }
+        }
+        boolean medirEspera = SONDA_ADQUIRIDO.isEnabled();
+        boolean medirPosse = SONDA_LIBERADO.isEnabled();
+        if (!medirEspera && !medirPosse) {
+            return DESLIGADA;
+        }
+        Adquirido espera = medirEspera ? new Adquirido() : null;
+        Liberado posse = medirPosse ? new Liberado() : null;
+        if (espera != null) {
+            espera.begin();
+        }
+        return new Aquisicao(lock, nome, espera, posse);
+    }
+}
@@ -0,0 +1,346 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grafo de espera (wait-for) para primitivas que o ThreadMXBean não enxerga.
+ *
+ * findDeadlockedThreads() só entende monitores e AbstractOwnableSynchronizer:
+ * um deadlock feito de Semaphores (como os de CorridaComSemaphore) ou de
+ * esperas em CountDownLatch passa despercebido pelo DeadlockDetector.
+ *
+ * As primitivas daqui mantêm o grafo dono → recurso → thread em espera:
+ *   - cada thread tem um nó com o recurso que está esperando (volatile,
+ *     escrito só por ela);
+ *   - cada recurso sabe quem o segura (mapa concorrente, sem trava global).
+ *
+ * Antes de bloquear, a thread insere a aresta de espera e verifica na hora
+ * se ficou presa: ela está presa se o recurso não tem permissão livre e
+ * todos os donos estão presos (um ciclo fecha a recursão). O deadlock é
+ * reportado por quem fecha o ciclo, em microssegundos. Se duas threads
+ * fecharem o ciclo ao mesmo tempo e nenhuma enxergar a aresta da outra, a
+ * verificação se repete a cada REVERIFICACAO_MS enquanto a thread espera.
+ *
+ * Uso: java GrafoEspera [operações]
+ */
+public class GrafoEspera {
+
+    static final long REVERIFICACAO_MS = 50;
+
+    /**
+     * Recebe cada ciclo detectado (uma vez por conjunto de threads)
+     */
+    @FunctionalInterface
+    interface Ouvinte {
+        void cicloDetectado(List<String> ciclo, long latenciaNs);
+    }
+
+    static volatile Ouvinte ouvinte = GrafoEspera::imprimir;
+    static final Set<Set<Thread>> REPORTADOS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Nó de uma thread no grafo
+     */
+    static final class No {
+        final Thread thread = Thread.currentThread();
+        volatile Recurso esperando;
+        long desde;  // nanoTime em que a aresta de espera foi inserida
+    }
+
+    static final ThreadLocal<No> NO = ThreadLocal.withInitial(No::new);
+
+    /**
+     * Recurso rastreado: quem o segura e se uma espera seria atendida agora
+     */
+    abstract static class Recurso {
+        final String nome;
+        final Map<No, Integer> donos = new ConcurrentHashMap<>();  // permissões por dono
+
+        Recurso(String nome) {
+            this.nome = nome;
+        }
+
+        abstract boolean livre();
+
+        void adicionarDono(No no) {
+            donos.merge(no, 1, Integer::sum);
+        }
+
+        void removerDono(No no) {
+            donos.computeIfPresent(no, (k, v) -> v == 1 ? null : v - 1);
+        }
+
+        /**
+         * Insere a aresta de espera, verifica ciclo e espera por tentativa
+         * com timeout, reverificando a cada rodada
+         */
+        void esperar(No eu, Aguardar tentativa) throws InterruptedException {
+            eu.desde = System.nanoTime();
+            eu.esperando = this;
+            try {
+                verificar(eu);
+                while (!tentativa.aguardar(REVERIFICACAO_MS)) {
+                    verificar(eu);
+                }
+            } finally {
+                eu.esperando = null;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Aguardar {
+        boolean aguardar(long ms) throws InterruptedException;
+    }
+
+    /**
+     * Semaphore com dono rastreado por permissão. Semaphore não tem dono:
+     * num produtor/consumidor uma thread adquire e outra libera. Um release
+     * por quem não é dono libera o dono mais antigo, senão ele ficaria como
+     * dono fantasma para sempre e geraria ciclos inexistentes.
+     */
+    static class SemaforoRastreado extends Recurso {
+        final Semaphore semaforo;
+        final Queue<No> aquisicoes = new ConcurrentLinkedQueue<>();  // uma entrada por permissão, em ordem
+
+        SemaforoRastreado(String nome, int permissoes) {
+            super(nome);
+            semaforo = new Semaphore(permissoes);
+        }
+
+        void acquire() throws InterruptedException {
+            No eu = NO.get();
+            if (!semaforo.tryAcquire()) {
+                esperar(eu, ms -> semaforo.tryAcquire(ms, TimeUnit.MILLISECONDS));
+            }
+            adicionarDono(eu);
+            aquisicoes.add(eu);
+        }
+
+        void release() {
+            No eu = NO.get();
+            if (aquisicoes.remove(eu)) {
+                removerDono(eu);
+            } else {
+                No maisAntigo = aquisicoes.poll();
+                if (maisAntigo != null) {
+                    removerDono(maisAntigo);
+                }
+            }
+            semaforo.release();
+        }
+
+        boolean livre() {
+            return semaforo.availablePermits() > 0;
+        }
+    }
+
+    /**
+     * CountDownLatch em que as threads que vão contar se declaram com
+     * comprometer(): elas são os "donos" pelos quem await() espera
+     */
+    static class LatchRastreado extends Recurso {
+        final CountDownLatch latch;
+
+        LatchRastreado(String nome, int contagem) {
+            super(nome);
+            latch = new CountDownLatch(contagem);
+        }
+
+        void comprometer() {
+            adicionarDono(NO.get());
+        }
+
+        void countDown() {
+            removerDono(NO.get());
+            latch.countDown();
+        }
+
+        void await() throws InterruptedException {
+            if (latch.getCount() > 0) {
+                esperar(NO.get(), ms -> latch.await(ms, TimeUnit.MILLISECONDS));
+            }
+        }
+
+        boolean livre() {
+            return latch.getCount() == 0;
+        }
+    }
+
+    // ========================================================================
+    // DETECÇÃO
+    // ========================================================================
+
+    static void verificar(No eu) {
+        List<No> caminho = new ArrayList<>();
+        // Duas leituras seguidas precisam concordar: o grafo muda enquanto é
+        // percorrido e um dono pode ter acabado de liberar
+        if (preso(eu, caminho, new HashSet<>()) && preso(eu, new ArrayList<>(), new HashSet<>())) {
+            Set<Thread> threads = new HashSet<>();
+            for (No no : caminho) {
+                threads.add(no.thread);
+            }
+            if (REPORTADOS.add(threads)) {
+                long latencia = System.nanoTime() - eu.desde;
+                List<String> ciclo = new ArrayList<>();
+                for (No no : caminho) {
+                    Recurso r = no.esperando;
+                    ciclo.add(no.thread.getName() + " espera " + (r == null ? "?" : r.nome));
+                }
+                ouvinte.cicloDetectado(ciclo, latencia);
+            }
+        }
+    }
+
+    /**
+     * A thread está presa se espera um recurso sem permissão livre cujos
+     * donos estão todos presos. Reencontrar uma thread do caminho fecha o
+     * ciclo (hipótese de que ela está presa).
+     */
+    static boolean preso(No no, List<No> caminho, Set<No> visitando) {
+        if (visitando.contains(no)) {
+            return true;
+        }
+        Recurso r = no.esperando;
+        if (r == null || r.livre()) {
+            return false;
+        }
+        visitando.add(no);
+        caminho.add(no);
+        int verificados = 0;
+        for (No dono : r.donos.keySet()) {
+            // O próprio no também conta: re-pegar um semáforo binário que já
+            // segura é um deadlock de uma thread só
+            if (!preso(dono, caminho, visitando)) {
+                verificados = -1;
+                break;
+            }
+            verificados++;
+        }
+        // Nenhum dono (o conjunto pode esvaziar durante a iteração): quem
+        // liberar não é conhecido, então não há como afirmar que está presa
+        if (verificados <= 0) {
+            caminho.remove(caminho.size() - 1);
+            visitando.remove(no);
+            return false;
+        }
+        return true;
+    }
+
+    static void imprimir(List<String> ciclo, long latenciaNs) {
+        System.out.printf("🚨 CICLO NO GRAFO DE ESPERA (detectado em %,.1f µs)%n", latenciaNs / 1e3);
+        for (String passo : ciclo) {
+            System.out.println("   " + passo + "  →");
+        }
+        System.out.println("   (volta ao início = CICLO)");
+    }
+
+    // ========================================================================
+    // DEMONSTRAÇÃO E CUSTO
+    // ========================================================================
+
+    public static void main(String[] args) throws Exception {
+        int operacoes = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     GRAFO DE ESPERA PARA SEMAPHORE E LATCH           ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.println();
+
+        // 1. O deadlock de DeadlockDemo, mas com semáforos binários
+        System.out.println("1. Thread-1: S_A → S_B | Thread-2: S_B → S_A");
+        SemaforoRastreado sA = new SemaforoRastreado("S_A", 1);
+        SemaforoRastreado sB = new SemaforoRastreado("S_B", 1);
+        iniciar("Thread-1", () -> { sA.acquire(); DeadlockDetector.dormir(100); sB.acquire(); });
+        iniciar("Thread-2", () -> { sB.acquire(); DeadlockDetector.dormir(100); sA.acquire(); });
+        Thread.sleep(300);
+        long[] vistos = ManagementFactory.getThreadMXBean().findDeadlockedThreads();
+        System.out.println("   findDeadlockedThreads(): " + (vistos == null ? "null (não enxerga)" : vistos.length));
+        System.out.println();
+
+        // 2. Latch + semáforo: Thread-3 segura S_C e espera o latch que a
+        //    Thread-4 prometeu contar, mas a Thread-4 precisa de S_C antes
+        System.out.println("2. Thread-3: S_C → await(L) | Thread-4: comprometer(L) → S_C → countDown(L)");
+        SemaforoRastreado sC = new SemaforoRastreado("S_C", 1);
+        LatchRastreado l = new LatchRastreado("L", 1);
+        iniciar("Thread-4", () -> {
+            l.comprometer();
+            DeadlockDetector.dormir(100);
+            sC.acquire();
+            l.countDown();
+        });
+        iniciar("Thread-3", () -> { sC.acquire(); DeadlockDetector.dormir(50); l.await(); });
+        Thread.sleep(300);
+        System.out.println();
+
+        // 3. Custo por acquire/release
+        System.out.printf("3. Custo por acquire + release (%,d operações)%n", operacoes);
+        Semaphore puro = new Semaphore(1);
+        SemaforoRastreado rastreado = new SemaforoRastreado("BENCH", 1);
+        for (int rodada = 0; rodada < 2; rodada++) {  // 1ª rodada aquece o JIT
+            double nsPuro = medirPar(operacoes, () -> { puro.acquire(); puro.release(); });
+            double nsRastreado = medirPar(operacoes, () -> { rastreado.acquire(); rastreado.release(); });
+            if (rodada == 1) {
+                System.out.printf("   %-30s %8.1f ns  (1 thread)  %8.1f ns  (4 threads)%n",
+                                  "Semaphore", nsPuro, medir(4, operacoes / 4, () -> {
+                                      puro.acquire(); puro.release(); }));
+                System.out.printf("   %-30s %8.1f ns  (1 thread)  %8.1f ns  (4 threads)%n",
+                                  "SemaforoRastreado", nsRastreado, medir(4, operacoes / 4, () -> {
+                                      rastreado.acquire(); rastreado.release(); }));
+            }
+        }
+        System.out.println();
+        System.out.println("💡 Sem contenção o custo extra é registrar o dono; a verificação de");
+        System.out.println("   ciclo só roda quando a thread realmente vai esperar.");
+    }
+
+    @FunctionalInterface
+    interface Acao {
+        void executar() throws InterruptedException;
+    }
+
+    static void iniciar(String nome, Acao acao) {
+        Thread t = new Thread(() -> {
+            try {
+                acao.executar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, nome);
+        t.setDaemon(true);  // as threads do deadlock nunca terminam
+        t.start();
+    }
+
+    static double medirPar(int operacoes, Acao acao) throws InterruptedException {
+        return medir(1, operacoes, acao);
+    }
+
+    /**
+     * ns por operação: tempo de parede dividido pelo total de operações de
+     * todas as threads
+     */
+    static double medir(int threads, int operacoes, Acao acao) throws InterruptedException {
+        Thread[] ts = new Thread[threads];
+        long inicio = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            ts[i] = new Thread(() -> {
+                try {
+                    for (int k = 0; k < operacoes; k++) {
+                        acao.executar();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            ts[i].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        return (System.nanoTime() - inicio) / (double) ((long) threads * operacoes);
+    }
+}
@@ -0,0 +1,479 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Validador de ordem de locks em tempo de execução (no estilo do lockdep do
+ * Linux), generalizando a regra LOCK_A < LOCK_B de DeadlockCorrigido.
+ *
+ * Cada LockOrdenado pertence a uma classe de lock (um nome: "CONTA",
+ * "GARFO"...). Ao pegar um lock da classe Y segurando um da classe X, o
+ * validador registra a aresta X → Y em um grafo global. Se já existir um
+ * caminho Y → ... → X, a nova aresta fecha um ciclo: é uma inversão de ordem,
+ * reportada com as duas stacks ANTES de qualquer deadlock acontecer (basta
+ * que as duas ordens apareçam em algum momento, mesmo em execuções que não
+ * travaram).
+ *
+ * Dois locks da MESMA classe (duas contas, dois garfos) não viram aresta:
+ * o grafo de classes não distingue as instâncias. Para eles vale a chave de
+ * ordem da instância (como as subclasses do lockdep): aninhados, a chave
+ * menor deve vir primeiro, e a primeira aquisição fora dessa ordem já é
+ * reportada. Aninhar dois locks da mesma classe sem chave também é
+ * reportado, porque nesse caso a ordem entre eles não pode ser validada.
+ *
+ * Caminho rápido: cada thread guarda em um bitmap as arestas que já validou;
+ * uma aresta conhecida custa um teste de bit, sem alocação e sem trava
+ * global. Só arestas novas para a thread passam pelo grafo (synchronized).
+ *
+ * Uso: java LockOrdenado [threads] [operações por thread]
+ */
+public class LockOrdenado implements Lock {
+
+    static final int MAX_CLASSES = 256;
+    static final int MAX_ANINHAMENTO = 32;
+    static final long SEM_CHAVE = Long.MIN_VALUE;
+
+    // ========================================================================
+    // ESTADO GLOBAL: CLASSES E GRAFO DE ORDEM
+    // ========================================================================
+
+    static final Map<String, Integer> CLASSES = new ConcurrentHashMap<>();
+    static final String[] NOMES = new String[MAX_CLASSES];
+    // Ids vêm de um contador próprio: CLASSES.size() dentro do
+    // computeIfAbsent não é atômico entre chaves diferentes (dois nomes
+    // registrados ao mesmo tempo podiam receber o mesmo id)
+    static final AtomicInteger PROXIMA_CLASSE = new AtomicInteger();
+
+    // arestas[x] = classes adquiridas depois de x, com a stack da 1ª vez
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static final Map<Integer, StackTraceElement[]>[] ARESTAS = new Map[MAX_CLASSES];
+    static final Set<Long> INVERSOES_REPORTADAS = new HashSet<>();
+    static final Object GRAFO = new Object();
+
+    /**
+     * Recebe cada inversão de ordem (uma vez por par de classes)
+     */
+    @FunctionalInterface
+    interface Ouvinte {
+        void inversaoDetectada(Inversao inversao);
+    }
+
+    static volatile Ouvinte ouvinte = LockOrdenado::imprimir;
+
+    /**
+     * Inversão: a thread atual pega "depois" segurando "antes", mas o grafo
+     * já tinha o caminho "depois" → ... → "antes". Na mesma classe,
+     * stackExistente é null e o caminho é a ordem exigida pelas chaves
+     * (vazio se algum dos dois locks não tem chave).
+     */
+    static class Inversao {
+        final String antes;
+        final String depois;
+        final List<String> caminhoExistente;
+        final StackTraceElement[] stackExistente;  // 1ª aresta do caminho existente
+        final StackTraceElement[] stackAtual;
+        final String thread;
+
+        Inversao(String antes, String depois, List<String> caminhoExistente,
+                 StackTraceElement[] stackExistente, StackTraceElement[] stackAtual) {
+            this.antes = antes;
+            this.depois = depois;
+            this.caminhoExistente = caminhoExistente;
+            this.stackExistente = stackExistente;
+            this.stackAtual = stackAtual;
+            this.thread = Thread.currentThread().getName();
+        }
+    }
+
+    /**
+     * Locks seguros pela thread (classes) e arestas que ela já validou.
+     * Alocado uma vez por thread; lock()/unlock() não alocam.
+     */
+    static final class EstadoThread {
+        final int[] seguros = new int[MAX_ANINHAMENTO];
+        final LockOrdenado[] instancias = new LockOrdenado[MAX_ANINHAMENTO];
+        int profundidade;
+        final long[] validadas = new long[MAX_CLASSES * MAX_CLASSES / 64];
+
+        boolean validada(int de, int para) {
+            int bit = de * MAX_CLASSES + para;
+            return (validadas[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        void marcar(int de, int para) {
+            int bit = de * MAX_CLASSES + para;
+            validadas[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    static final ThreadLocal<EstadoThread> ESTADO = ThreadLocal.withInitial(EstadoThread::new);
+
+    // ========================================================================
+    // O LOCK
+    // ========================================================================
+
+    final int classe;
+    final long chave;  // ordem entre locks da mesma classe, ou SEM_CHAVE
+    final Lock delegado;
+
+    LockOrdenado(String nomeClasse) {
+        this(nomeClasse, SEM_CHAVE, new ReentrantLock());
+    }
+
+    LockOrdenado(String nomeClasse, long chave) {
+        this(nomeClasse, chave, new ReentrantLock());
+    }
+
+    LockOrdenado(String nomeClasse, Lock delegado) {
+        this(nomeClasse, SEM_CHAVE, delegado);
+    }
+
+    LockOrdenado(String nomeClasse, long chave, Lock delegado) {
+        this.classe = CLASSES.computeIfAbsent(nomeClasse, nome -> {
+            int id = PROXIMA_CLASSE.getAndIncrement();
+            if (id >= MAX_CLASSES) {
+                throw new IllegalStateException("Mais de " + MAX_CLASSES + " classes de lock");
+            }
+            NOMES[id] = nome;
+            return id;
+        });
+        this.chave = chave;
+        this.delegado = delegado;
+    }
+
+    String rotulo() {
+        return chave == SEM_CHAVE ? NOMES[classe] : NOMES[classe] + "#" + chave;
+    }
+
+    /**
+     * Valida a ordem contra tudo o que a thread segura, antes de bloquear
+     */
+    void validar(EstadoThread estado) {
+        for (int i = 0; i < estado.profundidade; i++) {
+            int seguro = estado.seguros[i];
+            if (seguro == classe) {
+                LockOrdenado outro = estado.instancias[i];
+                boolean emOrdem = chave != SEM_CHAVE && outro.chave != SEM_CHAVE && outro.chave < chave;
+                if (outro != this && !emOrdem) {
+                    mesmaClasse(outro);
+                }
+            } else if (!estado.validada(seguro, classe)) {
+                registrarAresta(seguro, classe);
+                estado.marcar(seguro, classe);
+            }
+        }
+    }
+
+    void empilhar(EstadoThread estado) {
+        if (estado.profundidade == MAX_ANINHAMENTO) {
+            throw new IllegalStateException("Mais de " + MAX_ANINHAMENTO + " locks aninhados");
+        }
+        estado.instancias[estado.profundidade] = this;
+        estado.seguros[estado.profundidade++] = classe;
+    }
+
+    @Override
+    public void lock() {
+        EstadoThread estado = ESTADO.get();
+        validar(estado);
+        delegado.lock();
+        empilhar(estado);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        EstadoThread estado = ESTADO.get();
+        validar(estado);
+        delegado.lockInterruptibly();
+        empilhar(estado);
+    }
+
+    /**
+     * tryLock não bloqueia, então não pode fechar um deadlock: não valida,
+     * mas o lock obtido entra na pilha para validar os próximos
+     */
+    @Override
+    public boolean tryLock() {
+        if (delegado.tryLock()) {
+            empilhar(ESTADO.get());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (delegado.tryLock(time, unit)) {
+            empilhar(ESTADO.get());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove a ocorrência mais recente deste lock (a liberação pode ser fora
+     * de ordem)
+     */
+    @Override
+    public void unlock() {
+        EstadoThread estado = ESTADO.get();
+        for (int i = estado.profundidade - 1; i >= 0; i--) {
+            if (estado.instancias[i] == this) {
+                int depois = estado.profundidade - i - 1;
+                System.arraycopy(estado.seguros, i + 1, estado.seguros, i, depois);
+                System.arraycopy(estado.instancias, i + 1, estado.instancias, i, depois);
+                estado.instancias[--estado.profundidade] = null;
+                break;
+            }
+        }
+        delegado.unlock();
+    }
+
+    @Override
+    public Condition newCondition() {
+        return delegado.newCondition();
+    }
+
+    // ========================================================================
+    // CAMINHO LENTO: GRAFO GLOBAL
+    // ========================================================================
+
+    /**
+     * Aresta nova para esta thread: procura o caminho inverso no grafo e,
+     * se não houver, registra a aresta com a stack atual
+     */
+    static void registrarAresta(int de, int para) {
+        Inversao inversao = null;
+        synchronized (GRAFO) {
+            if (ARESTAS[de] != null && ARESTAS[de].containsKey(para)) {
+                return;  // outra thread já registrou
+            }
+            List<Integer> caminho = caminho(para, de);
+            if (caminho == null) {
+                if (ARESTAS[de] == null) {
+                    ARESTAS[de] = new HashMap<>();
+                }
+                ARESTAS[de].put(para, Thread.currentThread().getStackTrace());
+            } else if (INVERSOES_REPORTADAS.add(Math.min(de, para) * (long) MAX_CLASSES
+                                                + Math.max(de, para))) {
+                List<String> nomes = new ArrayList<>();
+                for (int c : caminho) {
+                    nomes.add(NOMES[c]);
+                }
+                inversao = new Inversao(NOMES[de], NOMES[para], nomes,
+                                        ARESTAS[caminho.get(0)].get(caminho.get(1)),
+                                        Thread.currentThread().getStackTrace());
+            }
+        }
+        if (inversao != null) {
+            ouvinte.inversaoDetectada(inversao);
+        }
+    }
+
+    /**
+     * Aninhamento na mesma classe fora da ordem das chaves (ou sem chave):
+     * reportado uma vez por classe
+     */
+    void mesmaClasse(LockOrdenado seguro) {
+        Inversao inversao = null;
+        synchronized (GRAFO) {
+            if (INVERSOES_REPORTADAS.add(classe * (long) MAX_CLASSES + classe)) {
+                List<String> ordem = chave == SEM_CHAVE || seguro.chave == SEM_CHAVE
+                    ? List.of() : List.of(rotulo(), seguro.rotulo());
+                inversao = new Inversao(seguro.rotulo(), rotulo(), ordem, null,
+                                        Thread.currentThread().getStackTrace());
+            }
+        }
+        if (inversao != null) {
+            ouvinte.inversaoDetectada(inversao);
+        }
+    }
+
+    /**
+     * Busca em largura de origem até destino; null se não houver caminho
+     */
+    static List<Integer> caminho(int origem, int destino) {
+        int[] anterior = new int[MAX_CLASSES];
+        Arrays.fill(anterior, -1);
+        Deque<Integer> fila = new ArrayDeque<>();
+        fila.add(origem);
+        anterior[origem] = origem;
+        while (!fila.isEmpty()) {
+            int atual = fila.poll();
+            if (atual == destino) {
+                LinkedList<Integer> caminho = new LinkedList<>();
+                for (int c = destino; c != origem; c = anterior[c]) {
+                    caminho.addFirst(c);
+                }
+                caminho.addFirst(origem);
+                return caminho;
+            }
+            if (ARESTAS[atual] != null) {
+                for (int proximo : ARESTAS[atual].keySet()) {
+                    if (anterior[proximo] < 0) {
+                        anterior[proximo] = atual;
+                        fila.add(proximo);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    static void imprimir(Inversao inv) {
+        System.out.println();
+        if (inv.stackExistente == null) {
+            System.out.println("🚨 LOCKS DA MESMA CLASSE ANINHADOS FORA DE ORDEM (deadlock possível)");
+            if (inv.caminhoExistente.isEmpty()) {
+                System.out.printf("   %s pegou %s segurando %s: sem chave de ordem, a ordem%n",
+                                  inv.thread, inv.depois, inv.antes);
+                System.out.println("   entre as instâncias não pode ser validada");
+            } else {
+                System.out.printf("   %s pegou %s segurando %s, mas a chave exige %s%n",
+                                  inv.thread, inv.depois, inv.antes,
+                                  String.join(" → ", inv.caminhoExistente));
+            }
+            System.out.println();
+            imprimirStack(inv.stackAtual);
+            return;
+        }
+        System.out.println("🚨 INVERSÃO DE ORDEM DE LOCKS (deadlock possível)");
+        System.out.printf("   %s pegou %s segurando %s, mas já existe a ordem %s%n",
+                          inv.thread, inv.depois, inv.antes,
+                          String.join(" → ", inv.caminhoExistente));
+        System.out.println();
+        System.out.printf("   Ordem existente (%s → %s), registrada em:%n",
+                          inv.caminhoExistente.get(0), inv.caminhoExistente.get(1));
+        imprimirStack(inv.stackExistente);
+        System.out.printf("   Ordem invertida (%s → %s), agora em:%n", inv.antes, inv.depois);
+        imprimirStack(inv.stackAtual);
+    }
+
+    static final Set<String> QUADROS_INTERNOS =
+        Set.of("getStackTrace", "registrarAresta", "mesmaClasse", "validar", "lock", "lockInterruptibly");
+
+    static void imprimirStack(StackTraceElement[] stack) {
+        // Pula os quadros do próprio validador (getStackTrace → registrarAresta
+        // → validar → lock) e mostra a partir de quem chamou lock()
+        int inicio = 0;
+        while (inicio < stack.length && QUADROS_INTERNOS.contains(stack[inicio].getMethodName())) {
+            inicio++;
+        }
+        for (int i = inicio; i < Math.min(stack.length, inicio + 6); i++) {
+            System.out.println("      at " + stack[i]);
+        }
+        System.out.println();
+    }
+
+    // ========================================================================
+    // DEMONSTRAÇÃO E CUSTO
+    // ========================================================================
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int operacoes = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     VALIDADOR DE ORDEM DE LOCKS (LOCKDEP)            ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.println();
+
+        LockOrdenado lockA = new LockOrdenado("LOCK_A");
+        LockOrdenado lockB = new LockOrdenado("LOCK_B");
+
+        // 1. Ordem de DeadlockCorrigido: A → B nas duas threads, nada a reportar
+        System.out.println("1. Duas threads com a ordem LOCK_A → LOCK_B");
+        executar(() -> pegarEmOrdem(lockA, lockB), "Thread-1");
+        executar(() -> pegarEmOrdem(lockA, lockB), "Thread-2");
+        System.out.println("   ✅ nenhuma inversão");
+        System.out.println();
+
+        // 2. Ordem de DeadlockDemo, mas uma thread depois da outra: não
+        //    trava nesta execução, e mesmo assim a inversão é apontada
+        System.out.println("2. Thread-2 usa LOCK_B → LOCK_A (sem travar: roda depois da Thread-1)");
+        executar(() -> pegarEmOrdem(lockB, lockA), "Thread-2");
+
+        // 3. Mesma classe: o grafo de classes não vê duas contas em ordens
+        //    opostas; a chave de cada instância vê
+        System.out.println("3. Duas contas da classe CONTA (chaves 1 e 2) em ordens opostas");
+        LockOrdenado conta1 = new LockOrdenado("CONTA", 1);
+        LockOrdenado conta2 = new LockOrdenado("CONTA", 2);
+        executar(() -> pegarEmOrdem(conta1, conta2), "Thread-1");
+        executar(() -> pegarEmOrdem(conta2, conta1), "Thread-2");
+
+        // 4. Custo: o mesmo aninhamento com ReentrantLock puro e validado
+        System.out.println("4. Custo por par de locks aninhados (" + threads + " threads, "
+                           + String.format("%,d", operacoes) + " pares cada)");
+        Lock puroA = new ReentrantLock();
+        Lock puroB = new ReentrantLock();
+        LockOrdenado ordA = new LockOrdenado("CONTA_ORIGEM");
+        LockOrdenado ordB = new LockOrdenado("CONTA_DESTINO");
+        for (int rodada = 0; rodada < 2; rodada++) {  // 1ª rodada aquece o JIT
+            double[] puro = medir(puroA, puroB, threads, operacoes);
+            double[] validado = medir(ordA, ordB, threads, operacoes);
+            if (rodada == 1) {
+                System.out.printf("   %-22s %,10.1f ns/par  %,8.2f bytes/par%n",
+                                  "ReentrantLock", puro[0], puro[1]);
+                System.out.printf("   %-22s %,10.1f ns/par  %,8.2f bytes/par%n",
+                                  "LockOrdenado", validado[0], validado[1]);
+            }
+        }
+        System.out.println();
+        System.out.println("💡 Depois da primeira vez, cada aresta custa um teste de bit no");
+        System.out.println("   estado da thread: o validador pode ficar ligado nos testes de carga.");
+        System.out.println("   Locks da mesma classe precisam de chave (new LockOrdenado(\"CONTA\", id)):");
+        System.out.println("   sem ela, aninhar dois deles é reportado, pois a ordem não é verificável.");
+    }
+
+    static void pegarEmOrdem(Lock primeiro, Lock segundo) {
+        primeiro.lock();
+        try {
+            segundo.lock();
+            segundo.unlock();
+        } finally {
+            primeiro.unlock();
+        }
+    }
+
+    static void executar(Runnable r, String nome) throws InterruptedException {
+        Thread t = new Thread(r, nome);
+        t.start();
+        t.join();
+    }
+
+    /**
+     * Retorna {ns por par, bytes alocados por par} (média das threads)
+     */
+    static double[] medir(Lock a, Lock b, int threads, int operacoes) throws InterruptedException {
+        com.sun.management.ThreadMXBean tmx =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double[] ns = new double[threads];
+        double[] bytes = new double[threads];
+        Thread[] ts = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            int id = i;
+            ts[i] = new Thread(() -> {
+                pegarEmOrdem(a, b);  // inicializa o estado da thread fora da medição
+                long id0 = Thread.currentThread().threadId();
+                long bytes0 = tmx.getThreadAllocatedBytes(id0);
+                long t0 = System.nanoTime();
+                for (int k = 0; k < operacoes; k++) {
+                    pegarEmOrdem(a, b);
+                }
+                ns[id] = (System.nanoTime() - t0) / (double) operacoes;
+                bytes[id] = (tmx.getThreadAllocatedBytes(id0) - bytes0) / (double) operacoes;
+            });
+            ts[i].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        return new double[] {Arrays.stream(ns).average().orElse(0),
+                             Arrays.stream(bytes).average().orElse(0)};
+    }
+}
@@ -0,0 +1,346 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Log assíncrono para as demonstrações sensíveis a tempo.
+ *
+ * O log() original das demos faz LocalTime.now().format(...) e printf na
+ * própria thread: aloca várias strings por chamada e serializa as threads no
+ * lock do PrintStream, alterando justamente as intercalações demonstradas.
+ *
+ * Aqui log() só grava um evento binário (nanoTime, fonte, mensagem) em um
+ * ring buffer pré-alocado, multi-produtor e sem lock (slot reservado por CAS
+ * com número de sequência por slot, como a fila limitada de Vyukov). Fonte e
+ * mensagem são referências às constantes do chamador: nada é alocado. Uma
+ * thread consumidora formata os eventos fora do caminho crítico e escreve
+ * em lotes. Com o buffer cheio o evento é descartado e contado, em vez de
+ * bloquear o produtor.
+ *
+ * Uso: java LogAssincrono [threads] [chamadas por thread]
+ *   (custo por chamada e perturbação do tempo medido de um lock; a medição
+ *   roda em lotes que cabem no buffer, esvaziado entre lotes fora do tempo)
+ */
+public class LogAssincrono {
+
+    static final int CAPACIDADE = 1 << 16;
+    static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    // Slots pré-alocados
+    final long[] nanos = new long[CAPACIDADE];
+    final String[] fontes = new String[CAPACIDADE];
+    final String[] mensagens = new String[CAPACIDADE];
+
+    // sequencia[i] == pos: livre para o produtor da posição pos;
+    // sequencia[i] == pos + 1: publicado, pronto para o consumidor
+    final AtomicLongArray sequencia = new AtomicLongArray(CAPACIDADE);
+    final AtomicLong cauda = new AtomicLong();
+    final LongAdder descartados = new LongAdder();
+
+    final PrintStream saida;
+    final String formato;
+    final Thread consumidor;
+    volatile long escrito;  // eventos já formatados e escritos
+
+    // Âncora para converter nanoTime em horário do relógio
+    final long nanoBase = System.nanoTime();
+    final LocalTime horaBase = LocalTime.now();
+
+    /**
+     * @param largura largura da coluna da fonte (como o %-10s das demos)
+     */
+    LogAssincrono(PrintStream saida, int largura) {
+        this.saida = saida;
+        this.formato = "[%s] %-" + largura + "s %s%n";
+        for (int i = 0; i < CAPACIDADE; i++) {
+            sequencia.set(i, i);
+        }
+        consumidor = new Thread(this::consumir, "LogAssincrono");
+        consumidor.setDaemon(true);
+        consumidor.start();
+        // Esvazia o buffer também em System.exit (DeadlockDetector)
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+    }
+
+    /**
+     * Caminho crítico: reserva um slot por CAS, grava e publica
+     */
+    void log(String fonte, String mensagem) {
+        long agora = System.nanoTime();
+        long pos;
+        int i;
+        while (true) {
+            pos = cauda.get();
+            i = (int) (pos & (CAPACIDADE - 1));
+            long seq = sequencia.get(i);
+            if (seq == pos) {
+                if (cauda.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (seq < pos) {
+                descartados.increment();  // cheio: o consumidor ainda não liberou o slot
+                return;
+            }
+            // seq > pos: outro produtor reservou esta posição, tenta a próxima
+        }
+        nanos[i] = agora;
+        fontes[i] = fonte;
+        mensagens[i] = mensagem;
+        sequencia.lazySet(i, pos + 1);  // publica (release) os campos acima
+    }
+
+    /**
+     * Consumidor: drena o que estiver publicado, formata em um único
+     * StringBuilder e escreve o lote de uma vez
+     */
+    void consumir() {
+        StringBuilder lote = new StringBuilder(1 << 16);
+        long cabeca = 0;
+        while (true) {
+            int drenados = 0;
+            while (drenados < CAPACIDADE) {
+                int i = (int) (cabeca & (CAPACIDADE - 1));
+                if (sequencia.get(i) != cabeca + 1) {
+                    break;
+                }
+                LocalTime hora = horaBase.plusNanos(nanos[i] - nanoBase);
+                lote.append(String.format(formato, hora.format(TIME_FORMAT),
+                                          fontes[i] + ":", mensagens[i]));
+                fontes[i] = null;
+                mensagens[i] = null;
+                sequencia.lazySet(i, cabeca + CAPACIDADE);  // libera o slot
+                cabeca++;
+                drenados++;
+            }
+            if (lote.length() > 0) {
+                saida.print(lote);
+                saida.flush();
+                lote.setLength(0);
+            }
+            escrito = cabeca;
+            if (drenados == 0) {
+                LockSupport.parkNanos(this, 1_000_000);
+            }
+        }
+    }
+
+    /**
+     * Espera o consumidor escrever tudo o que foi registrado até agora
+     * (antes de imprimir direto em System.out, para não intercalar)
+     */
+    void flush() {
+        long alvo = cauda.get();
+        while (escrito < alvo && consumidor.isAlive()) {
+            LockSupport.unpark(consumidor);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    // ========================================================================
+    // BENCHMARK: CUSTO POR CHAMADA E PERTURBAÇÃO
+    // ========================================================================
+
+    /**
+     * O log() síncrono das demos, escrevendo no stream dado
+     */
+    static void logSincrono(PrintStream saida, String fonte, String mensagem) {
+        String time = LocalTime.now().format(TIME_FORMAT);
+        saida.printf("[%s] %-10s %s%n", time, fonte + ":", mensagem);
+    }
+
+    interface Logger {
+        void log(String fonte, String mensagem);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int chamadas = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     LOG ASSÍNCRONO (RING BUFFER SEM LOCK)            ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Threads: %d | Chamadas por thread: %,d | Saída descartada%n%n",
+                          threads, chamadas);
+
+        // Os dois escrevem em um stream nulo: mede o custo na thread que loga
+        PrintStream nula = new PrintStream(OutputStream.nullOutputStream());
+        LogAssincrono assincrono = new LogAssincrono(nula, 10);
+        Logger sincrono = (f, m) -> logSincrono(nula, f, m);
+
+        System.out.println("1. Custo por chamada de log()");
+        System.out.printf("   %-16s %14s %14s %12s%n", "", "ns/chamada", "bytes/chamada", "Descartados");
+        for (int rodada = 0; rodada < 2; rodada++) {  // 1ª rodada aquece o JIT
+            double[] s = medirChamadas(sincrono, null, threads, chamadas);
+            long antes = assincrono.descartados.sum();
+            double[] a = medirChamadas(assincrono::log, assincrono, threads, chamadas);
+            long descartados = assincrono.descartados.sum() - antes;
+            if (rodada == 1) {
+                System.out.printf("   %-16s %,14.1f %,14.1f %12s%n", "printf síncrono", s[0], s[1], "-");
+                System.out.printf("   %-16s %,14.1f %,14.1f %,12d%n", "assíncrono", a[0], a[1], descartados);
+            }
+        }
+        System.out.println();
+
+        System.out.println("2. Perturbação: tempo médio esperando um ReentrantLock disputado");
+        System.out.println("   (cada thread loga uma linha dentro e fora da seção crítica)");
+        System.out.printf("   %-16s %14s %14s %12s%n", "", "espera (ns)", "ops/s", "Descartados");
+        for (int rodada = 0; rodada < 2; rodada++) {
+            double[] nada = medirLock(null, null, threads, chamadas / 4);
+            double[] s = medirLock(sincrono, null, threads, chamadas / 4);
+            long antes = assincrono.descartados.sum();
+            double[] a = medirLock(assincrono::log, assincrono, threads, chamadas / 4);
+            long descartados = assincrono.descartados.sum() - antes;
+            if (rodada == 1) {
+                System.out.printf("   %-16s %,14.0f %,14.0f %12s%n", "sem log", nada[0], nada[1], "-");
+                System.out.printf("   %-16s %,14.0f %,14.0f %12s%n", "printf síncrono", s[0], s[1], "-");
+                System.out.printf("   %-16s %,14.0f %,14.0f %,12d%n", "assíncrono", a[0], a[1], descartados);
+            }
+        }
+        System.out.println();
+        System.out.println("💡 O printf síncrono adiciona um segundo lock (o do PrintStream) e");
+        System.out.println("   alocação a cada linha; o log assíncrono deixa a espera medida perto");
+        System.out.println("   da execução sem log. Entre lotes o consumidor esvazia o buffer fora do");
+        System.out.println("   tempo medido: em regime contínuo acima da vazão do consumidor, o");
+        System.out.println("   excedente seria descartado (coluna Descartados).");
+    }
+
+    /**
+     * Divide a medição em lotes que cabem no buffer. Quando todas as threads
+     * terminam um lote, o buffer é esvaziado fora do tempo medido; senão o
+     * consumidor (que formata cada evento) fica para trás, o ring enche e a
+     * medição passa a ser a do descarte.
+     */
+    static final class Lotes {
+        final CyclicBarrier barreira;
+        long inicio = System.nanoTime();
+        long ativoNs;  // soma da duração dos lotes, sem os intervalos de flush
+
+        Lotes(int threads, LogAssincrono drenar) {
+            barreira = new CyclicBarrier(threads, () -> {
+                ativoNs += System.nanoTime() - inicio;
+                if (drenar != null) {
+                    drenar.flush();
+                }
+                inicio = System.nanoTime();
+            });
+        }
+
+        void fimDoLote() throws InterruptedException {
+            try {
+                barreira.await();
+            } catch (BrokenBarrierException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Retorna {ns por chamada, bytes alocados por chamada} (média das threads),
+     * só do tempo dentro dos lotes; drenar = buffer esvaziado entre lotes
+     */
+    static double[] medirChamadas(Logger logger, LogAssincrono drenar, int threads,
+                                  int chamadas) throws InterruptedException {
+        com.sun.management.ThreadMXBean tmx =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double[][] r = new double[threads][2];
+        Lotes lotes = new Lotes(threads, drenar);
+        int porLote = Math.max(1, CAPACIDADE / 2 / threads);
+        Thread[] ts = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            ts[t] = new Thread(() -> {
+                long tid = Thread.currentThread().threadId();
+                long nanos = 0;
+                long bytes = 0;
+                try {
+                    for (int feitas = 0; feitas < chamadas; feitas += porLote) {
+                        int n = Math.min(porLote, chamadas - feitas);
+                        long bytes0 = tmx.getThreadAllocatedBytes(tid);
+                        long t0 = System.nanoTime();
+                        for (int k = 0; k < n; k++) {
+                            logger.log("Thread-1", "✓ LOCK_A ADQUIRIDO");
+                        }
+                        nanos += System.nanoTime() - t0;
+                        bytes += tmx.getThreadAllocatedBytes(tid) - bytes0;
+                        lotes.fimDoLote();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                r[id][0] = nanos / (double) chamadas;
+                r[id][1] = bytes / (double) chamadas;
+            });
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        double ns = 0;
+        double bytes = 0;
+        for (double[] x : r) {
+            ns += x[0] / threads;
+            bytes += x[1] / threads;
+        }
+        return new double[] {ns, bytes};
+    }
+
+    /**
+     * Retorna {espera média pelo lock (ns), operações/s}; logger null = sem
+     * log. Em lotes como medirChamadas (duas linhas de log por operação).
+     */
+    static double[] medirLock(Logger logger, LogAssincrono drenar, int threads,
+                              int operacoes) throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        LongAdder esperaNs = new LongAdder();
+        long[] contador = new long[1];
+        Lotes lotes = new Lotes(threads, drenar);
+        int porLote = Math.max(1, CAPACIDADE / 4 / threads);
+        Thread[] ts = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            ts[t] = new Thread(() -> {
+                long espera = 0;
+                for (int k = 0; k < operacoes; k++) {
+                    if (k > 0 && k % porLote == 0) {
+                        try {
+                            lotes.fimDoLote();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                    if (logger != null) {
+                        logger.log("Thread-1", "Tentando adquirir LOCK_A...");
+                    }
+                    long t0 = System.nanoTime();
+                    lock.lock();
+                    espera += System.nanoTime() - t0;
+                    try {
+                        contador[0]++;
+                        if (logger != null) {
+                            logger.log("Thread-1", "✓ LOCK_A ADQUIRIDO");
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                esperaNs.add(espera);
+            });
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        double segundos = (lotes.ativoNs + System.nanoTime() - lotes.inicio) / 1e9;
+        long total = (long) threads * operacoes;
+        return new double[] {esperaNs.sum() / (double) total, total / segundos};
+    }
+}
@@ -0,0 +1,370 @@
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monitor contínuo de deadlock, reutilizável e de baixo custo.
+ *
+ * Substitui a thread de DeadlockDetector (sleep de 1 s + findDeadlockedThreads
+ * + System.exit) por um serviço em ScheduledExecutorService:
+ *
+ *   1. Passo barato: getThreadInfo(ids, 0) sem stack trace e busca de ciclo
+ *      no grafo "bloqueada → dona do lock". Não para a JVM em safepoint: o
+ *      custo (~1 µs por thread) fica só na thread do monitor.
+ *   2. Só com um ciclo candidato roda findDeadlockedThreads(), que para
+ *      todas as threads (safepoint) para confirmar com um retrato atômico.
+ *   3. Só com deadlock confirmado captura locks e stacks completos
+ *      (getThreadInfo(ids, true, true)) e chama o Ouvinte.
+ *
+ * O intervalo é adaptativo: dobra enquanto o sistema está saudável (até
+ * INTERVALO_MAX_MS) e volta ao mínimo quando o número de threads bloqueadas
+ * cresce ou aparece um ciclo candidato.
+ *
+ * Uso: java MonitorDeadlock [threads ociosas] [duração s]
+ *   (mede o custo do monitor e depois detecta um deadlock de verdade)
+ */
+public class MonitorDeadlock {
+
+    static final long INTERVALO_MIN_MS = 50;
+    static final long INTERVALO_MAX_MS = 2000;
+    static final long INTERVALO_INICIAL_MS = 250;
+
+    /**
+     * Recebe cada deadlock confirmado (uma vez enquanto ele durar)
+     */
+    @FunctionalInterface
+    interface Ouvinte {
+        void deadlockDetectado(ThreadInfo[] infos);
+    }
+
+    final ThreadMXBean tmx = ManagementFactory.getThreadMXBean();
+    final Ouvinte ouvinte;
+    final ScheduledExecutorService agendador;
+    // Deadlocks já entregues: thread → vezes que bloqueou/esperou. Se as
+    // mesmas threads travarem de novo, as contagens mudam e é outro deadlock.
+    final Set<Map<Long, Long>> reportados = new HashSet<>();
+    Map<Long, Long> contagens = new HashMap<>();
+
+    final long intervaloMinMs;
+    final long intervaloMaxMs;
+    volatile long intervaloMs = INTERVALO_INICIAL_MS;
+    volatile boolean ativo;
+    int bloqueadasAnterior;
+
+    // Custo acumulado de cada passo (ns) e quantas vezes rodou
+    final LongAdder passosBaratos = new LongAdder();
+    final LongAdder nsBaratos = new LongAdder();
+    final LongAdder confirmacoes = new LongAdder();
+    final LongAdder nsConfirmacoes = new LongAdder();
+    final LongAdder capturas = new LongAdder();
+
+    MonitorDeadlock(Ouvinte ouvinte) {
+        this(ouvinte, INTERVALO_MIN_MS, INTERVALO_MAX_MS);
+    }
+
+    MonitorDeadlock(Ouvinte ouvinte, long intervaloMinMs, long intervaloMaxMs) {
+        this.ouvinte = ouvinte;
+        this.intervaloMinMs = intervaloMinMs;
+        this.intervaloMaxMs = intervaloMaxMs;
+        this.intervaloMs = Math.min(intervaloMaxMs, Math.max(intervaloMinMs, INTERVALO_INICIAL_MS));
+        this.agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MonitorDeadlock");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void iniciar() {
+        ativo = true;
+        agendador.schedule(this::verificar, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    void parar() {
+        ativo = false;
+        agendador.shutdownNow();
+    }
+
+    /**
+     * Uma rodada do monitor; reagenda a si mesma com o próximo intervalo
+     */
+    void verificar() {
+        try {
+            boolean suspeito = verificarUmaVez();
+            intervaloMs = suspeito ? intervaloMinMs : Math.min(intervaloMaxMs, intervaloMs * 2);
+        } catch (RuntimeException e) {
+            System.err.println("MonitorDeadlock: " + e);
+        }
+        if (ativo) {
+            agendador.schedule(this::verificar, intervaloMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Executa os três passos. Retorna true se a rodada foi suspeita
+     * (mais threads bloqueadas que na anterior ou ciclo candidato).
+     */
+    boolean verificarUmaVez() {
+        long t0 = System.nanoTime();
+        Map<Long, Long> esperaPor = bloqueadas();
+        boolean candidato = temCiclo(esperaPor);
+        nsBaratos.add(System.nanoTime() - t0);
+        passosBaratos.increment();
+
+        boolean cresceu = esperaPor.size() > bloqueadasAnterior;
+        bloqueadasAnterior = esperaPor.size();
+        if (!candidato) {
+            // Nenhum ciclo: deadlocks já reportados foram resolvidos e, se as
+            // mesmas threads travarem de novo, é um deadlock novo
+            reportados.clear();
+            return cresceu;
+        }
+
+        t0 = System.nanoTime();
+        long[] ids = tmx.findDeadlockedThreads();
+        nsConfirmacoes.add(System.nanoTime() - t0);
+        confirmacoes.increment();
+
+        if (ids != null && reportados.add(chave(ids))) {
+            capturas.increment();
+            ouvinte.deadlockDetectado(tmx.getThreadInfo(ids, true, true));
+        }
+        return true;
+    }
+
+    /**
+     * Passo barato: threads esperando por um lock com dono conhecido
+     * (BLOCKED em monitor ou WAITING em lock de java.util.concurrent)
+     */
+    Map<Long, Long> bloqueadas() {
+        Map<Long, Long> esperaPor = new HashMap<>();
+        contagens = new HashMap<>();
+        for (ThreadInfo info : tmx.getThreadInfo(tmx.getAllThreadIds(), 0)) {
+            if (info == null || info.getLockOwnerId() < 0) {
+                continue;
+            }
+            Thread.State estado = info.getThreadState();
+            if (estado == Thread.State.BLOCKED || estado == Thread.State.WAITING) {
+                esperaPor.put(info.getThreadId(), info.getLockOwnerId());
+                contagens.put(info.getThreadId(), info.getBlockedCount() + info.getWaitedCount());
+            }
+        }
+        return esperaPor;
+    }
+
+    /**
+     * Cada thread espera no máximo um lock, então o grafo é funcional:
+     * basta seguir a cadeia de donos a partir de cada thread
+     */
+    static boolean temCiclo(Map<Long, Long> esperaPor) {
+        Set<Long> semCiclo = new HashSet<>();
+        for (Long inicio : esperaPor.keySet()) {
+            Set<Long> caminho = new HashSet<>();
+            Long atual = inicio;
+            while (atual != null && !semCiclo.contains(atual)) {
+                if (!caminho.add(atual)) {
+                    return true;
+                }
+                atual = esperaPor.get(atual);
+            }
+            semCiclo.addAll(caminho);
+        }
+        return false;
+    }
+
+    /**
+     * Separa os ciclos propriamente ditos: findDeadlockedThreads() também
+     * devolve threads que só esperam por uma thread do ciclo, e interromper
+     * uma delas não desfaz nada
+     */
+    static List<List<ThreadInfo>> ciclos(ThreadInfo[] infos) {
+        Map<Long, ThreadInfo> porId = new HashMap<>();
+        for (ThreadInfo info : infos) {
+            if (info != null) {
+                porId.put(info.getThreadId(), info);
+            }
+        }
+        List<List<ThreadInfo>> ciclos = new ArrayList<>();
+        Set<Long> visitadas = new HashSet<>();
+        for (long inicio : porId.keySet()) {
+            List<Long> caminho = new ArrayList<>();
+            Long atual = inicio;
+            while (atual != null && porId.containsKey(atual) && visitadas.add(atual)) {
+                caminho.add(atual);
+                atual = porId.get(atual).getLockOwnerId();
+            }
+            int fechamento = atual == null ? -1 : caminho.indexOf(atual);
+            if (fechamento >= 0) {
+                List<ThreadInfo> ciclo = new ArrayList<>();
+                for (long id : caminho.subList(fechamento, caminho.size())) {
+                    ciclo.add(porId.get(id));
+                }
+                ciclos.add(ciclo);
+            }
+        }
+        return ciclos;
+    }
+
+    Map<Long, Long> chave(long[] ids) {
+        Map<Long, Long> chave = new HashMap<>();
+        for (long id : ids) {
+            chave.put(id, contagens.getOrDefault(id, -1L));
+        }
+        return chave;
+    }
+
+    String estatisticas() {
+        long baratos = Math.max(1, passosBaratos.sum());
+        long conf = confirmacoes.sum();
+        return String.format("passo sem safepoint %,d× (média %,d µs) | findDeadlockedThreads "
+                             + "(safepoint) %,d× (média %,d µs) | capturas completas %d | "
+                             + "intervalo atual %d ms",
+                             passosBaratos.sum(), nsBaratos.sum() / baratos / 1000, conf,
+                             conf == 0 ? 0 : nsConfirmacoes.sum() / conf / 1000,
+                             capturas.sum(), intervaloMs);
+    }
+
+    // ========================================================================
+    // MEDIÇÃO DE CUSTO E DEMONSTRAÇÃO
+    // ========================================================================
+
+    static volatile boolean emExecucao;
+
+    public static void main(String[] args) throws Exception {
+        int ociosas = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int duracao = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int trabalhadoras = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     MONITOR DE DEADLOCK ADAPTATIVO                   ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Trabalhadoras: %d | Threads ociosas: %,d | Duração: %d s por modo%n%n",
+                          trabalhadoras, ociosas, duracao);
+
+        // Threads ociosas tornam cada varredura de threads mais cara
+        CountDownLatch fim = new CountDownLatch(1);
+        for (int i = 0; i < ociosas; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    fim.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Ociosa-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        // Aquecimento descartado
+        medirCarga(trabalhadoras, 500);
+
+        double base = medirCarga(trabalhadoras, duracao * 1000L);
+        System.out.printf("%-34s %,16.0f ops/s%n", "Sem monitor", base);
+
+        // Polling fixo como o DeadlockDetector original, mas a cada 100 ms
+        ThreadMXBean tmx = ManagementFactory.getThreadMXBean();
+        LongAdder nsPolling = new LongAdder();
+        LongAdder rodadasPolling = new LongAdder();
+        ScheduledExecutorService polling = Executors.newSingleThreadScheduledExecutor();
+        polling.scheduleWithFixedDelay(() -> {
+            long t0 = System.nanoTime();
+            tmx.findDeadlockedThreads();
+            nsPolling.add(System.nanoTime() - t0);
+            rodadasPolling.increment();
+        }, 0, 100, TimeUnit.MILLISECONDS);
+        double comPolling = medirCarga(trabalhadoras, duracao * 1000L);
+        polling.shutdownNow();
+        System.out.printf("%-34s %,16.0f ops/s  (%.2f%%)  findDeadlockedThreads %,d× média %,d µs%n",
+                          "Polling fixo 100 ms", comPolling, 100 * (comPolling - base) / base,
+                          rodadasPolling.sum(), nsPolling.sum() / Math.max(1, rodadasPolling.sum()) / 1000);
+
+        MonitorDeadlock monitor = new MonitorDeadlock(infos -> { });
+        monitor.iniciar();
+        double comMonitor = medirCarga(trabalhadoras, duracao * 1000L);
+        monitor.parar();
+        System.out.printf("%-34s %,16.0f ops/s  (%.2f%%)%n",
+                          "Monitor adaptativo", comMonitor, 100 * (comMonitor - base) / base);
+        System.out.println("   " + monitor.estatisticas());
+        fim.countDown();
+        System.out.println();
+        System.out.println("💡 O polling fixo para TODAS as threads a cada rodada; o monitor");
+        System.out.println("   adaptativo só para a JVM quando já viu um ciclo candidato.");
+
+        // Demonstração: deadlock real detectado pelo monitor, sem System.exit
+        System.out.println();
+        System.out.println("════════════════════════════════════════════════════════");
+        System.out.println();
+        long[] criado = new long[1];
+        CountDownLatch detectado = new CountDownLatch(1);
+        MonitorDeadlock demo = new MonitorDeadlock(infos -> {
+            System.out.printf("🚨 DEADLOCK DETECTADO após %,d ms%n%n",
+                              (System.nanoTime() - criado[0]) / 1_000_000);
+            DeadlockDetector.gerarRelatorioDeadlock(
+                ManagementFactory.getThreadMXBean(),
+                Arrays.stream(infos).mapToLong(ThreadInfo::getThreadId).toArray());
+            detectado.countDown();
+        });
+        demo.iniciar();
+        criado[0] = System.nanoTime();
+        criarDeadlock();
+        detectado.await();
+        System.out.println("   " + demo.estatisticas());
+        demo.parar();
+    }
+
+    /**
+     * Carga de trabalho: incrementos em um monitor disputado, com threads
+     * BLOCKED aparecendo e sumindo o tempo todo (sem deadlock)
+     */
+    static double medirCarga(int trabalhadoras, long duracaoMs) throws InterruptedException {
+        Object lock = new Object();
+        LongAdder operacoes = new LongAdder();
+        long[] contador = new long[1];
+
+        emExecucao = true;
+        Thread[] threads = new Thread[trabalhadoras];
+        for (int i = 0; i < trabalhadoras; i++) {
+            threads[i] = new Thread(() -> {
+                long ops = 0;
+                while (emExecucao) {
+                    synchronized (lock) {
+                        contador[0]++;
+                    }
+                    ops++;
+                }
+                operacoes.add(ops);
+            }, "Trabalhadora-" + i);
+            threads[i].start();
+        }
+        Thread.sleep(duracaoMs);
+        emExecucao = false;
+        for (Thread t : threads) {
+            t.join();
+        }
+        return operacoes.sum() / (duracaoMs / 1000.0);
+    }
+
+    /**
+     * O mesmo deadlock de DeadlockDemo: A → B contra B → A
+     */
+    static void criarDeadlock() {
+        Object lockA = new Object();
+        Object lockB = new Object();
+        Thread t1 = new Thread(() -> {
+            synchronized (lockA) {
+                DeadlockDetector.dormir(100);
+                synchronized (lockB) { }
+            }
+        }, "Thread-1-Worker");
+        Thread t2 = new Thread(() -> {
+            synchronized (lockB) {
+                DeadlockDetector.dormir(100);
+                synchronized (lockA) { }
+            }
+        }, "Thread-2-Worker");
+        t1.setDaemon(true);
+        t2.setDaemon(true);
+        t1.start();
+        t2.start();
+    }
+}
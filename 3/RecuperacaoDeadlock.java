@@ -0,0 +1,245 @@
+import java.lang.management.ThreadInfo;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recuperação de deadlock por escolha de vítima, em vez de System.exit.
+ *
+ * As threads pegam os locks com lockInterruptibly(). Quando o MonitorDeadlock
+ * confirma um ciclo, o ouvinte escolhe UMA vítima segundo a política e a
+ * interrompe: a vítima desfaz a operação (os finally soltam os locks que ela
+ * segurava), o ciclo se desfaz e ela tenta de novo. É a preempção que a
+ * condição de Coffman "não preempção" proíbe, feita de forma cooperativa.
+ *
+ * Políticas de vítima:
+ *   MAIS_NOVA          a operação que começou por último (perde menos trabalho)
+ *   MENOS_LOCKS        a que segura menos locks (desfaz menos)
+ *   MENOR_PRIORIDADE   a de menor Thread.getPriority()
+ *
+ * Os deadlocks são induzidos de propósito: transferências entre poucas
+ * contas, cada uma travando origem → destino sem ordem global.
+ *
+ * Uso: java RecuperacaoDeadlock [threads] [contas] [duração s]
+ */
+public class RecuperacaoDeadlock {
+
+    // Pausa segurando o primeiro lock: aumenta a janela de hold-and-wait
+    static final int PAUSA_MS = 1;
+
+    enum Politica {
+        MAIS_NOVA("Mais nova") {
+            long custo(ThreadInfo info, Trabalhador t) {
+                return -t.inicioOperacao;  // começou por último = menor custo
+            }
+        },
+        MENOS_LOCKS("Menos locks seguros") {
+            long custo(ThreadInfo info, Trabalhador t) {
+                return info.getLockedSynchronizers().length;
+            }
+        },
+        MENOR_PRIORIDADE("Menor prioridade") {
+            long custo(ThreadInfo info, Trabalhador t) {
+                return info.getPriority();
+            }
+        };
+
+        final String nome;
+
+        Politica(String nome) {
+            this.nome = nome;
+        }
+
+        /**
+         * Custo de sacrificar a thread; a vítima é a de menor custo
+         */
+        abstract long custo(ThreadInfo info, Trabalhador t);
+    }
+
+    /**
+     * Estado de uma thread de trabalho visível para o ouvinte
+     */
+    static class Trabalhador {
+        final Thread thread;
+        volatile long inicioOperacao;  // nanoTime do início da operação atual
+        volatile long esperandoDesde;  // nanoTime do bloqueio no 2º lock, 0 se não
+        volatile long deadlockDesde;   // preenchido pelo ouvinte antes de interromper
+        long operacoes;
+        long reversoes;
+
+        Trabalhador(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    static volatile boolean emExecucao;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int contas = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int duracao = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.println("╔══════════════════════════════════════════════════════╗");
+        System.out.println("║     RECUPERAÇÃO DE DEADLOCK POR VÍTIMA               ║");
+        System.out.println("╚══════════════════════════════════════════════════════╝");
+        System.out.printf("Threads: %d | Contas: %d | Duração: %d s por política%n%n",
+                          threads, contas, duracao);
+
+        System.out.printf("%-22s %10s %12s %14s %14s %14s %8s%n", "Política", "Deadlocks",
+                          "Ops/s", "Detecção (ms)", "Recuperação", "Rec. máx (ms)", "Saldo");
+        for (Politica politica : Politica.values()) {
+            executar(politica, threads, contas, duracao * 1000L);
+        }
+
+        System.out.println();
+        System.out.println("💡 Detecção = do último bloqueio do ciclo até o ouvinte; recuperação =");
+        System.out.println("   até a vítima soltar os locks (média, ms). Ops/s são as transferências");
+        System.out.println("   concluídas pelas sobreviventes e pelas vítimas depois de repetir.");
+    }
+
+    static void executar(Politica politica, int threads, int contas, long duracaoMs)
+            throws InterruptedException {
+        ReentrantLock[] locks = new ReentrantLock[contas];
+        long[] saldos = new long[contas];
+        for (int i = 0; i < contas; i++) {
+            locks[i] = new ReentrantLock();
+            saldos[i] = 1_000;
+        }
+
+        Map<Long, Trabalhador> trabalhadores = new ConcurrentHashMap<>();
+        List<Long> deteccoesNs = Collections.synchronizedList(new ArrayList<>());
+        List<Long> recuperacoesNs = Collections.synchronizedList(new ArrayList<>());
+        LongAdder deadlocks = new LongAdder();
+
+        MonitorDeadlock monitor = new MonitorDeadlock(infos -> {
+            // Uma vítima por ciclo: a de menor custo entre as threads dele
+            for (List<ThreadInfo> ciclo : MonitorDeadlock.ciclos(infos)) {
+                ThreadInfo escolhida = null;
+                Trabalhador vitima = null;
+                long inicio = 0;
+                for (ThreadInfo info : ciclo) {
+                    Trabalhador t = trabalhadores.get(info.getThreadId());
+                    if (t == null) {
+                        continue;
+                    }
+                    inicio = Math.max(inicio, t.esperandoDesde);
+                    if (vitima == null || politica.custo(info, t) < politica.custo(escolhida, vitima)) {
+                        escolhida = info;
+                        vitima = t;
+                    }
+                }
+                if (vitima != null) {
+                    deadlocks.increment();
+                    if (inicio > 0) {
+                        deteccoesNs.add(System.nanoTime() - inicio);
+                    }
+                    vitima.deadlockDesde = inicio;
+                    vitima.thread.interrupt();
+                }
+            }
+        }, 10, 200);
+        monitor.iniciar();
+
+        emExecucao = true;
+        Trabalhador[] todos = new Trabalhador[threads];
+        for (int i = 0; i < threads; i++) {
+            int indice = i;
+            Thread t = new Thread(() -> trabalhar(todos[indice], locks, saldos, recuperacoesNs),
+                                  "Trabalhador-" + i);
+            t.setPriority(Thread.MIN_PRIORITY + i % (Thread.MAX_PRIORITY - Thread.MIN_PRIORITY + 1));
+            todos[i] = new Trabalhador(t);
+            trabalhadores.put(t.threadId(), todos[i]);
+        }
+        for (Trabalhador t : todos) {
+            t.thread.start();
+        }
+
+        Thread.sleep(duracaoMs);
+        emExecucao = false;
+        // O monitor continua ativo até o fim: uma thread ainda pode travar
+        // na última operação
+        for (Trabalhador t : todos) {
+            t.thread.join();
+        }
+        monitor.parar();
+
+        long operacoes = 0;
+        for (Trabalhador t : todos) {
+            operacoes += t.operacoes;
+        }
+        long erroSaldo = Arrays.stream(saldos).sum() - contas * 1_000L;
+        System.out.printf("%-22s %,10d %,12.0f %14.1f %14.1f %14.1f %8s%n",
+                          politica.nome, deadlocks.sum(), operacoes / (duracaoMs / 1000.0),
+                          media(deteccoesNs) / 1e6, media(recuperacoesNs) / 1e6,
+                          maximo(recuperacoesNs) / 1e6, erroSaldo == 0 ? "✅" : "❌");
+    }
+
+    /**
+     * Transferências origem → destino sem ordem global (deadlock possível).
+     * Interrupção = escolhida como vítima: desfaz e repete.
+     */
+    static void trabalhar(Trabalhador eu, ReentrantLock[] locks, long[] saldos,
+                          List<Long> recuperacoesNs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] nomes = new String[locks.length];  // nomes dos locks nos eventos JFR
+        for (int i = 0; i < nomes.length; i++) {
+            nomes[i] = "conta-" + i;
+        }
+        while (emExecucao) {
+            int origem = random.nextInt(locks.length);
+            int destino = random.nextInt(locks.length - 1);
+            if (destino >= origem) {
+                destino++;
+            }
+            eu.inicioOperacao = System.nanoTime();
+            try {
+                // Vítima interrompida: fica o pedido sem aquisição no JFR
+                EventosLock.Aquisicao primeiro = EventosLock.tentar(origem, nomes[origem]);
+                locks[origem].lockInterruptibly();
+                primeiro.adquirido();
+                try {
+                    Thread.sleep(PAUSA_MS);
+                    eu.esperandoDesde = System.nanoTime();
+                    EventosLock.Aquisicao segundo = EventosLock.tentar(destino, nomes[destino]);
+                    locks[destino].lockInterruptibly();
+                    segundo.adquirido();
+                    eu.esperandoDesde = 0;
+                    try {
+                        // Só altera estado com os dois locks: nada a desfazer antes
+                        saldos[origem]--;
+                        saldos[destino]++;
+                        eu.operacoes++;
+                    } finally {
+                        segundo.liberando();
+                        locks[destino].unlock();
+                    }
+                } finally {
+                    primeiro.liberando();
+                    locks[origem].unlock();
+                }
+            } catch (InterruptedException e) {
+                // Vítima: os finally já soltaram os locks, o ciclo acabou
+                eu.esperandoDesde = 0;
+                eu.reversoes++;
+                if (eu.deadlockDesde > 0) {
+                    recuperacoesNs.add(System.nanoTime() - eu.deadlockDesde);
+                    eu.deadlockDesde = 0;
+                }
+            }
+        }
+    }
+
+    static double media(List<Long> valores) {
+        synchronized (valores) {
+            return valores.stream().mapToLong(Long::longValue).average().orElse(Double.NaN);
+        }
+    }
+
+    static double maximo(List<Long> valores) {
+        synchronized (valores) {
+            return valores.stream().mapToLong(Long::longValue).max().orElse(0);
+        }
+    }
+}